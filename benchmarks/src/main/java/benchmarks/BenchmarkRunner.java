@@ -0,0 +1,33 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. It takes the regular JMH command line (so "-p size=1000" or a benchmark regex still
+ * work), but always attaches the GC profiler, which reports the allocation rate and GC counts next to every result,
+ * and writes the results to a JSON file so that two runs can be compared.
+ *
+ * Build and run with:
+ *
+ * mvn -B package
+ * java -jar benchmarks/target/benchmarks.jar SortBenchmark -p size=1000000
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cmd)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(cmd.getResult().orElse("jmh-result.json"));
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import datastructures.BlockingLinkedListQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand-off between platform threads through a bounded blocking queue. Blocking calls can't be used here: at the end of
+ * an iteration JMH stops the producers and the consumers independently, and a thread left waiting on the other side
+ * would hang the run. So the producers offer and the consumers poll with a short timeout.
+ *
+ * The run with 100,000 virtual-thread producers and consumers is the main method of BlockingLinkedListQueue, since
+ * virtual threads need Java 21.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Group)
+public class BlockingQueueBenchmark {
+    private final Integer item = 42;
+    private BlockingLinkedListQueue<Integer> queue;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        queue = new BlockingLinkedListQueue<>(1024);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(2)
+    public boolean offer() throws InterruptedException {
+        return queue.offer(item, 1, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @Group("handoff")
+    @GroupThreads(2)
+    public Integer poll() throws InterruptedException {
+        return queue.poll(1, TimeUnit.MILLISECONDS);
+    }
+}
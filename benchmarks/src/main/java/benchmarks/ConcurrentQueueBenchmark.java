@@ -0,0 +1,58 @@
+package benchmarks;
+
+import datastructures.ConcurrentLinkedListQueue;
+import datastructures.LinkedListQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A queue shared by all benchmark threads, where every thread enqueues an element and then dequeues one. The lock-free
+ * queue is compared with LinkedListQueue behind a synchronized block, which is what we had to do before.
+ *
+ * The number of threads is set on the command line, so the scaling curve is one run per thread count:
+ *
+ * for t in 1 2 4 8 16 32 64; do java -jar benchmarks/target/benchmarks.jar ConcurrentQueueBenchmark -t $t; done
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConcurrentQueueBenchmark {
+    private final Integer item = 42;
+    private ConcurrentLinkedListQueue<Integer> lockFreeQueue;
+    private LinkedListQueue<Integer> synchronizedQueue;
+
+    @Setup
+    public void setup() {
+        lockFreeQueue = new ConcurrentLinkedListQueue<>();
+        synchronizedQueue = new LinkedListQueue<>();
+    }
+
+    @Benchmark
+    public Integer lockFree() {
+        lockFreeQueue.enqueue(item);
+        return lockFreeQueue.dequeue();
+    }
+
+    @Benchmark
+    public Integer synchronizedLinkedList() {
+        synchronized(synchronizedQueue) {
+            synchronizedQueue.enqueue(item);
+        }
+        synchronized(synchronizedQueue) {
+            return synchronizedQueue.dequeue();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import datastructures.ConcurrentLinkedListStack;
+import datastructures.LinkedListStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A stack shared by all benchmark threads, used as a work pool: every thread adds an element and then removes one.
+ * The Treiber stack is measured with and without the elimination array, next to LinkedListStack behind a synchronized
+ * block.
+ *
+ * The number of threads is set on the command line, so the scaling curve is one run per thread count:
+ *
+ * for t in 1 2 4 8 16 32 64; do java -jar benchmarks/target/benchmarks.jar ConcurrentStackBenchmark -t $t; done
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConcurrentStackBenchmark {
+    private final Integer item = 42;
+    private ConcurrentLinkedListStack<Integer> eliminationStack;
+    private ConcurrentLinkedListStack<Integer> treiberStack;
+    private LinkedListStack<Integer> synchronizedStack;
+
+    @Setup
+    public void setup() {
+        eliminationStack = new ConcurrentLinkedListStack<>();
+        treiberStack = new ConcurrentLinkedListStack<>(0);
+        synchronizedStack = new LinkedListStack<>();
+    }
+
+    @Benchmark
+    public Integer elimination() {
+        eliminationStack.add(item);
+        return eliminationStack.remove();
+    }
+
+    @Benchmark
+    public Integer treiber() {
+        treiberStack.add(item);
+        return treiberStack.remove();
+    }
+
+    @Benchmark
+    public Integer synchronizedLinkedList() {
+        synchronized(synchronizedStack) {
+            synchronizedStack.add(item);
+        }
+        synchronized(synchronizedStack) {
+            return synchronizedStack.remove();
+        }
+    }
+}
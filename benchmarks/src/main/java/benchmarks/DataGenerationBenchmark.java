@@ -0,0 +1,61 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.RandUtil;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long it takes to generate the input of the other benchmarks with {@link RandUtil}. randomLoop is the way
+ * InputShape used to do it, one java.util.Random in a plain loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class DataGenerationBenchmark {
+    @Param({"100000", "10000000"})
+    public int size;
+
+    @Benchmark
+    public int[] randomLoop() {
+        Random random = new Random(InputShape.SEED);
+        int[] a = new int[size];
+        for(int i = 0; i < a.length; i++) {
+            a[i] = random.nextInt();
+        }
+        return a;
+    }
+
+    @Benchmark
+    public int[] uniform() {
+        return RandUtil.uniformInts(size, InputShape.SEED);
+    }
+
+    @Benchmark
+    public int[] unique() {
+        return RandUtil.uniqueInts(size, 0, size, InputShape.SEED);
+    }
+
+    @Benchmark
+    public int[] zipf() {
+        return RandUtil.zipfInts(size, size, 1.0, InputShape.SEED);
+    }
+
+    @Benchmark
+    public Integer[] boxed() {
+        return RandUtil.boxed(RandUtil.uniformInts(size, InputShape.SEED));
+    }
+}
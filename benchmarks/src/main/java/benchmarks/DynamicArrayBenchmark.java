@@ -0,0 +1,65 @@
+package benchmarks;
+
+import datastructures.DynamicArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk loading a {@link DynamicArray}: adding the rows one by one (which resizes about log n times on the way),
+ * presizing with ensureCapacity first, or adding them all with a single addAll. The GC profiler (the default in
+ * {@link BenchmarkRunner}) shows the memory allocated by the intermediate arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class DynamicArrayBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private Integer[] rows;
+
+    @Setup
+    public void setup() {
+        rows = InputShape.RANDOM.boxed(size);
+    }
+
+    @Benchmark
+    public DynamicArray<Integer> addOneByOne() {
+        DynamicArray<Integer> array = new DynamicArray<>();
+        for(Integer row : rows) {
+            array.add(row);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public DynamicArray<Integer> ensureCapacityThenAdd() {
+        DynamicArray<Integer> array = new DynamicArray<>();
+        array.ensureCapacity(rows.length);
+        for(Integer row : rows) {
+            array.add(row);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public DynamicArray<Integer> addAll() {
+        DynamicArray<Integer> array = new DynamicArray<>();
+        array.addAll(rows);
+        return array;
+    }
+}
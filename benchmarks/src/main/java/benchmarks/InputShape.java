@@ -0,0 +1,67 @@
+package benchmarks;
+
+import util.RandUtil;
+
+/**
+ * The different kinds of input we feed to the sorts. Most sorts behave very differently depending on how much order is
+ * already present in the input (insertion sort is linear on a sorted array but quadratic on a reversed one), so timing
+ * only random input would hide most of the interesting differences.
+ *
+ * Every shape is generated from a fixed seed so that two runs of the same benchmark sort exactly the same data. The
+ * data comes from {@link RandUtil}, which generates large arrays on all cores.
+ */
+public enum InputShape {
+    RANDOM {
+        @Override
+        public int[] ints(int n) {
+            return RandUtil.uniformInts(n, SEED);
+        }
+    },
+    SORTED {
+        @Override
+        public int[] ints(int n) {
+            return RandUtil.sortedInts(n);
+        }
+    },
+    REVERSED {
+        @Override
+        public int[] ints(int n) {
+            return RandUtil.reversedInts(n);
+        }
+    },
+    FEW_UNIQUE {
+        @Override
+        public int[] ints(int n) {
+            return RandUtil.fewUniqueInts(n, FEW_UNIQUE_KEYS, SEED);
+        }
+    },
+    NEARLY_SORTED {
+        @Override
+        public int[] ints(int n) {
+            // swap roughly 1% of the elements with a random partner
+            return RandUtil.nearlySortedInts(n, Math.max(1, n / 100), SEED);
+        }
+    },
+    SAWTOOTH {
+        @Override
+        public int[] ints(int n) {
+            return RandUtil.sawtoothInts(n, SAWTOOTH_PERIOD);
+        }
+    },
+    ZIPF {
+        @Override
+        public int[] ints(int n) {
+            return RandUtil.zipfInts(n, Math.max(1, n), 1.0, SEED);
+        }
+    };
+
+    static final long SEED = 42;
+    static final int FEW_UNIQUE_KEYS = 8;
+    static final int SAWTOOTH_PERIOD = 1000;
+
+    public abstract int[] ints(int n);
+
+    public Integer[] boxed(int n) {
+        return RandUtil.boxed(ints(n));
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import algorithms.BothContains;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ways of counting the values two int arrays have in common, in {@link BothContains}:
+ *
+ * - hash, bitSet and auto on two unsorted arrays of the same size. With a dense domain, the values lie in a range of
+ * twice the size, so about half of them are shared. With a sparse one, they can be any int.
+ * - sorted and galloping on sorted arrays, where the small one has 1/1000 of the elements of the large one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class IntersectionBenchmark {
+    @Param({"100000", "10000000"})
+    public int size;
+
+    @Param({"dense", "sparse"})
+    public String domain;
+
+    private int[] a;
+    private int[] b;
+    private int[] sortedSmall;
+    private int[] sortedLarge;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(InputShape.SEED);
+        int bound = domain.equals("dense") ? 2 * size : Integer.MAX_VALUE;
+
+        a = random.ints(size, 0, bound).toArray();
+        b = random.ints(size, 0, bound).toArray();
+
+        sortedLarge = b.clone();
+        Arrays.sort(sortedLarge);
+        sortedSmall = Arrays.copyOf(a, Math.max(1, size / 1000));
+        Arrays.sort(sortedSmall);
+    }
+
+    @Benchmark
+    public int hash() {
+        return BothContains.countBothHash(a, b);
+    }
+
+    @Benchmark
+    public int bitSet() {
+        return BothContains.countBothBitSet(a, b);
+    }
+
+    @Benchmark
+    public int auto() {
+        return BothContains.countBoth(a, b);
+    }
+
+    @Benchmark
+    public int sorted() {
+        return BothContains.countBothSorted(sortedSmall, sortedLarge);
+    }
+
+    @Benchmark
+    public int galloping() {
+        return BothContains.countBothGalloping(sortedSmall, sortedLarge);
+    }
+}
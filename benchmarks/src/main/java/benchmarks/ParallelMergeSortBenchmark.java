@@ -0,0 +1,64 @@
+package benchmarks;
+
+import algorithms.MergeSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link MergeSort#parallelSort(Comparable[], ForkJoinPool)} with the number of threads. The run with
+ * threads=1 is the baseline for the speedup; the sequential sort is included to show the overhead of the tasks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class ParallelMergeSortBenchmark {
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private Integer[] input;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        input = InputShape.RANDOM.boxed(size);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Integer[] sequential() {
+        Integer[] a = input.clone();
+        MergeSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] parallel() {
+        Integer[] a = input.clone();
+        MergeSort.parallelSort(a, pool);
+        return a;
+    }
+}
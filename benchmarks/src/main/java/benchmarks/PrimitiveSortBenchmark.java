@@ -0,0 +1,88 @@
+package benchmarks;
+
+import algorithms.DualPivotQuickSort;
+import algorithms.LSDRadixSort;
+import algorithms.MergeSort;
+import algorithms.ShellSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The int[] overloads against the same data sorted as an Integer[]. The boxed results here should line up with the
+ * numbers from {@link SortBenchmark}; the difference between the two is what boxing costs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class PrimitiveSortBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    @Param({"RANDOM", "NEARLY_SORTED"})
+    public InputShape shape;
+
+    private int[] input;
+    private Integer[] boxedInput;
+
+    @Setup
+    public void setup() {
+        input = shape.ints(size);
+        boxedInput = shape.boxed(size);
+    }
+
+    @Benchmark
+    public int[] mergeSortInt() {
+        int[] a = input.clone();
+        MergeSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] mergeSortBoxed() {
+        Integer[] a = boxedInput.clone();
+        MergeSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] shellSortInt() {
+        int[] a = input.clone();
+        ShellSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] shellSortBoxed() {
+        Integer[] a = boxedInput.clone();
+        ShellSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] dualPivotQuickSortInt() {
+        int[] a = input.clone();
+        DualPivotQuickSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public int[] lsdRadixSortInt() {
+        int[] a = input.clone();
+        LSDRadixSort.sort(a);
+        return a;
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import algorithms.InsertionSort;
+import algorithms.SelectionSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the quadratic sorts. Selection sort on a random array of 10^7 elements would need around 5 * 10^13
+ * comparisons, so the sizes stop at 10^5 here. Insertion sort on sorted or nearly sorted input is still linear and is
+ * the interesting case to look at.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class QuadraticSortBenchmark {
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "NEARLY_SORTED"})
+    public InputShape shape;
+
+    private Integer[] input;
+
+    @Setup
+    public void setup() {
+        input = shape.boxed(size);
+    }
+
+    @Benchmark
+    public Integer[] insertionSort() {
+        Integer[] a = input.clone();
+        InsertionSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] selectionSort() {
+        Integer[] a = input.clone();
+        SelectionSort.sort(a);
+        return a;
+    }
+}
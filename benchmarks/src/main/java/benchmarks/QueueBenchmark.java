@@ -0,0 +1,120 @@
+package benchmarks;
+
+import datastructures.CircularArrayQueue;
+import datastructures.DoubleStackQueue;
+import datastructures.LinkedListQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded queue churn: every invocation enqueues a batch of elements and then dequeues all of them, so the
+ * queue goes through the same sizes over and over like a message buffer does. Run with the GC profiler (the default in
+ * {@link BenchmarkRunner}) to see the allocation per operation: the pooled linked queues recycle their nodes, so once
+ * the pool holds a batch worth of nodes they should allocate next to nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class QueueBenchmark {
+    private static final int OPERATIONS = 1024;
+
+    @Param({"16", "1024"})
+    public int batch;
+
+    private final Integer item = 42;
+    private LinkedListQueue<Integer> linkedListQueue;
+    private LinkedListQueue<Integer> pooledLinkedListQueue;
+    private DoubleStackQueue<Integer> doubleStackQueue;
+    private DoubleStackQueue<Integer> pooledDoubleStackQueue;
+    private CircularArrayQueue<Integer> circularArrayQueue;
+
+    @Setup
+    public void setup() {
+        linkedListQueue = new LinkedListQueue<>();
+        pooledLinkedListQueue = new LinkedListQueue<>(batch);
+        doubleStackQueue = new DoubleStackQueue<>();
+        pooledDoubleStackQueue = new DoubleStackQueue<>(batch);
+        circularArrayQueue = new CircularArrayQueue<>();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void linkedListQueue(Blackhole bh) {
+        for(int done = 0; done < OPERATIONS; done += batch) {
+            for(int i = 0; i < batch; i++) {
+                linkedListQueue.enqueue(item);
+            }
+            for(int i = 0; i < batch; i++) {
+                bh.consume(linkedListQueue.dequeue());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void pooledLinkedListQueue(Blackhole bh) {
+        for(int done = 0; done < OPERATIONS; done += batch) {
+            for(int i = 0; i < batch; i++) {
+                pooledLinkedListQueue.enqueue(item);
+            }
+            for(int i = 0; i < batch; i++) {
+                bh.consume(pooledLinkedListQueue.dequeue());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void doubleStackQueue(Blackhole bh) {
+        for(int done = 0; done < OPERATIONS; done += batch) {
+            for(int i = 0; i < batch; i++) {
+                doubleStackQueue.enqueue(item);
+            }
+            for(int i = 0; i < batch; i++) {
+                bh.consume(doubleStackQueue.dequeue());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void pooledDoubleStackQueue(Blackhole bh) {
+        for(int done = 0; done < OPERATIONS; done += batch) {
+            for(int i = 0; i < batch; i++) {
+                pooledDoubleStackQueue.enqueue(item);
+            }
+            for(int i = 0; i < batch; i++) {
+                bh.consume(pooledDoubleStackQueue.dequeue());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void circularArrayQueue(Blackhole bh) {
+        for(int done = 0; done < OPERATIONS; done += batch) {
+            for(int i = 0; i < batch; i++) {
+                circularArrayQueue.enqueue(item);
+            }
+            for(int i = 0; i < batch; i++) {
+                bh.consume(circularArrayQueue.dequeue());
+            }
+        }
+    }
+}
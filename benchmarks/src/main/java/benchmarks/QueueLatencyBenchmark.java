@@ -0,0 +1,62 @@
+package benchmarks;
+
+import datastructures.DoubleStackQueue;
+import datastructures.RealTimeQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency of single queue operations, as a histogram. Every invocation enqueues one element and dequeues one, so
+ * the queue stays at the same size the whole time. In sample mode JMH times a sample of the invocations and reports
+ * percentiles, which is where the two queues differ: {@link DoubleStackQueue} is cheap on average, but once every size
+ * dequeues it moves the whole queue from one stack to the other, which shows up in the p99.99 and the max. {@link
+ * RealTimeQueue} spreads that work out, so its tail stays close to its median (at the cost of a slower average).
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class QueueLatencyBenchmark {
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private final Integer item = 42;
+    private DoubleStackQueue<Integer> doubleStackQueue;
+    private RealTimeQueue<Integer> realTimeQueue;
+
+    @Setup
+    public void setup() {
+        doubleStackQueue = new DoubleStackQueue<>();
+        realTimeQueue = new RealTimeQueue<>();
+
+        for(int i = 0; i < size; i++) {
+            doubleStackQueue.enqueue(item);
+            realTimeQueue.enqueue(item);
+        }
+    }
+
+    @Benchmark
+    public Integer doubleStackQueue() {
+        doubleStackQueue.enqueue(item);
+        return doubleStackQueue.dequeue();
+    }
+
+    @Benchmark
+    public Integer realTimeQueue() {
+        realTimeQueue.enqueue(item);
+        return realTimeQueue.dequeue();
+    }
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import datastructures.MpscArrayQueue;
+import datastructures.SpscArrayQueue;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer/consumer throughput of the bounded ring buffer queues. Each group runs its producers and its consumer on
+ * separate threads at the same time. The "messages" counter is the number of elements that actually went through the
+ * queue per second, which is the number to look at: a failed offer or an empty poll still counts as an operation for
+ * JMH's own score.
+ *
+ * The batch parameter is the limit passed to drain and fill. With batch=1, the batched benchmarks degrade to one
+ * element per call and show what the batching saves.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Group)
+public class RingBufferQueueBenchmark {
+    @Param({"1024"})
+    public int capacity;
+
+    @Param({"1", "64"})
+    public int batch;
+
+    private final Integer item = 42;
+    private SpscArrayQueue<Integer> spsc;
+    private MpscArrayQueue<Integer> mpsc;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        spsc = new SpscArrayQueue<>(capacity);
+        mpsc = new MpscArrayQueue<>(capacity);
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long messages;
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spscOffer(Counters counters) {
+        if(spsc.offer(item)) {
+            counters.messages++;
+        }
+    }
+
+    @Benchmark
+    @Group("spsc")
+    @GroupThreads(1)
+    public void spscPoll(Blackhole bh) {
+        bh.consume(spsc.poll());
+    }
+
+    @Benchmark
+    @Group("spscBatched")
+    @GroupThreads(1)
+    public void spscFill(Counters counters) {
+        counters.messages += spsc.fill(() -> item, batch);
+    }
+
+    @Benchmark
+    @Group("spscBatched")
+    @GroupThreads(1)
+    public void spscDrain(Blackhole bh) {
+        spsc.drain(bh::consume, batch);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(3)
+    public void mpscOffer(Counters counters) {
+        if(mpsc.offer(item)) {
+            counters.messages++;
+        }
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public void mpscPoll(Blackhole bh) {
+        bh.consume(mpsc.poll());
+    }
+
+    @Benchmark
+    @Group("mpscBatched")
+    @GroupThreads(3)
+    public void mpscOfferForDrain(Counters counters) {
+        if(mpsc.offer(item)) {
+            counters.messages++;
+        }
+    }
+
+    @Benchmark
+    @Group("mpscBatched")
+    @GroupThreads(1)
+    public void mpscDrain(Blackhole bh) {
+        mpsc.drain(bh::consume, batch);
+    }
+}
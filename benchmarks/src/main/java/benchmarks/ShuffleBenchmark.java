@@ -0,0 +1,71 @@
+package benchmarks;
+
+import algorithms.KnuthShuffle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * The plain shuffle of an int[] with different generators, and the parallel MergeShuffle. The array is shuffled over
+ * and over in place, since shuffling a shuffled array costs the same as shuffling a sorted one. The boxed shuffle is
+ * the one {@link KnuthShuffle} had before, on an Integer[] with ThreadLocalRandom.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+    @Param({"1000000", "100000000"})
+    public int size;
+
+    private int[] a;
+    private Integer[] boxed;
+    private SplittableRandom splittable;
+    private RandomGenerator xoshiro;
+
+    @Setup
+    public void setup() {
+        a = InputShape.SORTED.ints(size);
+        boxed = size <= 1000000 ? InputShape.SORTED.boxed(size) : new Integer[0]; // 10^8 Integers don't fit in the heap
+        splittable = new SplittableRandom(InputShape.SEED);
+        xoshiro = RandomGenerator.of("Xoshiro256PlusPlus");
+    }
+
+    @Benchmark
+    public Integer[] boxed() {
+        KnuthShuffle.shuffle(boxed);
+        return boxed;
+    }
+
+    @Benchmark
+    public int[] splittableRandom() {
+        KnuthShuffle.shuffle(a, splittable);
+        return a;
+    }
+
+    @Benchmark
+    public int[] xoshiro() {
+        KnuthShuffle.shuffle(a, xoshiro);
+        return a;
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        KnuthShuffle.parallelShuffle(a, splittable);
+        return a;
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import algorithms.BothContains;
+import datastructures.HyperLogLog;
+import datastructures.MinHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting the values two unsorted int arrays of the same size have in common exactly, with {@link BothContains}, and
+ * estimating it by streaming both arrays into a sketch each. The values lie in a range of twice the size, so about half
+ * of them are shared. The exact count needs the arrays in memory, the sketches take 16 KB (HyperLogLog) and 32 KB
+ * (MinHash) each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class SketchBenchmark {
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private int[] a;
+    private int[] b;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(InputShape.SEED);
+
+        a = random.ints(size, 0, 2 * size).toArray();
+        b = random.ints(size, 0, 2 * size).toArray();
+    }
+
+    @Benchmark
+    public long exact() {
+        return BothContains.countBoth(a, b);
+    }
+
+    @Benchmark
+    public long hyperLogLog() {
+        HyperLogLog sa = new HyperLogLog(14);
+        HyperLogLog sb = new HyperLogLog(14);
+        for(int value : a) {
+            sa.add(value);
+        }
+        for(int value : b) {
+            sb.add(value);
+        }
+        return sa.intersection(sb);
+    }
+
+    @Benchmark
+    public long minHash() {
+        MinHash sa = new MinHash(4096);
+        MinHash sb = new MinHash(4096);
+        for(int value : a) {
+            sa.add(value);
+        }
+        for(int value : b) {
+            sb.add(value);
+        }
+        return sa.intersection(sb);
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import algorithms.AdaptiveMergeSort;
+import algorithms.DualPivotQuickSort;
+import algorithms.MergeSort;
+import algorithms.ShellSort;
+import algorithms.ThreeWayQuickSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the NlgN (and sub-quadratic) sorts. These are cheap enough to run all the way up to 10^7 elements.
+ *
+ * Every invocation sorts a fresh copy of the same input, since sorting an already sorted array would measure something
+ * else entirely. The cost of that copy is measured on its own by {@link #copy()} so it can be subtracted out.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class SortBenchmark {
+    @Param({"10", "100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"RANDOM", "SORTED", "REVERSED", "FEW_UNIQUE", "NEARLY_SORTED"})
+    public InputShape shape;
+
+    private Integer[] input;
+
+    @Setup
+    public void setup() {
+        input = shape.boxed(size);
+    }
+
+    @Benchmark
+    public Integer[] copy() {
+        return input.clone();
+    }
+
+    @Benchmark
+    public Integer[] mergeSort() {
+        Integer[] a = input.clone();
+        MergeSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] adaptiveMergeSort() {
+        Integer[] a = input.clone();
+        AdaptiveMergeSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] shellSort() {
+        Integer[] a = input.clone();
+        ShellSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] dualPivotQuickSort() {
+        Integer[] a = input.clone();
+        DualPivotQuickSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public Integer[] threeWayQuickSort() {
+        Integer[] a = input.clone();
+        ThreeWayQuickSort.sort(a);
+        return a;
+    }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import algorithms.BothContains;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counting the values two sorted int arrays of the same size have in common, on one core and on all of them, with the
+ * plain kernel and with the Vector API kernel. {@link BothContains} only uses the Vector API kernel if the JVM is
+ * started with the incubator module, so the *Vector benchmarks run in forks that add it. The values lie in a range of
+ * twice the size, so about half of them are shared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class SortedIntersectionBenchmark {
+    private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    @Param({"100000", "10000000"})
+    public int size;
+
+    private int[] a;
+    private int[] b;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(InputShape.SEED);
+
+        a = random.ints(size, 0, 2 * size).toArray();
+        b = random.ints(size, 0, 2 * size).toArray();
+        Arrays.sort(a);
+        Arrays.sort(b);
+    }
+
+    @Benchmark
+    public int sorted() {
+        return BothContains.countBothSorted(a, b);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = VECTOR_MODULE)
+    public int sortedVector() {
+        return BothContains.countBothSorted(a, b);
+    }
+
+    @Benchmark
+    public int parallel() {
+        return BothContains.countBothParallel(a, b);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = VECTOR_MODULE)
+    public int parallelVector() {
+        return BothContains.countBothParallel(a, b);
+    }
+}
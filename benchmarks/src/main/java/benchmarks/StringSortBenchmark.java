@@ -0,0 +1,64 @@
+package benchmarks;
+
+import algorithms.MSDRadixSort;
+import algorithms.MergeSort;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String keys sorted by MSD radix sort and by mergesort. The keys look like typical IDs: a short shared prefix followed
+ * by random alphanumeric characters.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class StringSortBenchmark {
+    private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private String[] input;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(InputShape.SEED);
+        input = new String[size];
+        for(int i = 0; i < size; i++) {
+            StringBuilder key = new StringBuilder("id-");
+            for(int j = 0; j < 12; j++) {
+                key.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            input[i] = key.toString();
+        }
+    }
+
+    @Benchmark
+    public String[] msdRadixSort() {
+        String[] a = input.clone();
+        MSDRadixSort.sort(a);
+        return a;
+    }
+
+    @Benchmark
+    public String[] mergeSort() {
+        String[] a = input.clone();
+        MergeSort.sort(a);
+        return a;
+    }
+}
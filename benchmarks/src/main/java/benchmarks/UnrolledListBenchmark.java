@@ -0,0 +1,178 @@
+package benchmarks;
+
+import datastructures.LinkedListQueue;
+import datastructures.LinkedListStack;
+import datastructures.UnrolledLinkedListQueue;
+import datastructures.UnrolledLinkedListStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linked lists with one element per node against unrolled ones with a chunk of elements per node:
+ *
+ * - iterate* walks through a whole stack or queue of the given size.
+ * - churn* adds a batch of 1024 elements on top of the given size and removes them again, like {@link QueueBenchmark}.
+ * The time is per element.
+ * - fill* builds a stack or queue of the given size from scratch. Run with the GC profiler (the default in
+ * {@link BenchmarkRunner}): gc.alloc.rate.norm is then the memory of the whole structure, and divided by the size it
+ * is the footprint per element.
+ *
+ * The elements are all the same Integer, so only the memory of the list itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class UnrolledListBenchmark {
+    private static final int BATCH = 1024;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    @Param({"64", "1024"})
+    public int chunkSize;
+
+    private final Integer item = 42;
+    private LinkedListStack<Integer> linkedListStack;
+    private UnrolledLinkedListStack<Integer> unrolledStack;
+    private LinkedListQueue<Integer> linkedListQueue;
+    private UnrolledLinkedListQueue<Integer> unrolledQueue;
+
+    @Setup
+    public void setup() {
+        linkedListStack = new LinkedListStack<>();
+        unrolledStack = new UnrolledLinkedListStack<>(chunkSize);
+        linkedListQueue = new LinkedListQueue<>();
+        unrolledQueue = new UnrolledLinkedListQueue<>(chunkSize);
+
+        for(int i = 0; i < size; i++) {
+            linkedListStack.add(item);
+            unrolledStack.add(item);
+            linkedListQueue.enqueue(item);
+            unrolledQueue.enqueue(item);
+        }
+    }
+
+    @Benchmark
+    public void iterateLinkedListStack(Blackhole bh) {
+        for(Integer i : linkedListStack) {
+            bh.consume(i);
+        }
+    }
+
+    @Benchmark
+    public void iterateUnrolledStack(Blackhole bh) {
+        for(Integer i : unrolledStack) {
+            bh.consume(i);
+        }
+    }
+
+    @Benchmark
+    public void iterateLinkedListQueue(Blackhole bh) {
+        for(Integer i : linkedListQueue) {
+            bh.consume(i);
+        }
+    }
+
+    @Benchmark
+    public void iterateUnrolledQueue(Blackhole bh) {
+        for(Integer i : unrolledQueue) {
+            bh.consume(i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void churnLinkedListStack(Blackhole bh) {
+        for(int i = 0; i < BATCH; i++) {
+            linkedListStack.add(item);
+        }
+        for(int i = 0; i < BATCH; i++) {
+            bh.consume(linkedListStack.remove());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void churnUnrolledStack(Blackhole bh) {
+        for(int i = 0; i < BATCH; i++) {
+            unrolledStack.add(item);
+        }
+        for(int i = 0; i < BATCH; i++) {
+            bh.consume(unrolledStack.remove());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void churnLinkedListQueue(Blackhole bh) {
+        for(int i = 0; i < BATCH; i++) {
+            linkedListQueue.enqueue(item);
+        }
+        for(int i = 0; i < BATCH; i++) {
+            bh.consume(linkedListQueue.dequeue());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void churnUnrolledQueue(Blackhole bh) {
+        for(int i = 0; i < BATCH; i++) {
+            unrolledQueue.enqueue(item);
+        }
+        for(int i = 0; i < BATCH; i++) {
+            bh.consume(unrolledQueue.dequeue());
+        }
+    }
+
+    @Benchmark
+    public LinkedListStack<Integer> fillLinkedListStack() {
+        LinkedListStack<Integer> stack = new LinkedListStack<>();
+        for(int i = 0; i < size; i++) {
+            stack.add(item);
+        }
+        return stack;
+    }
+
+    @Benchmark
+    public UnrolledLinkedListStack<Integer> fillUnrolledStack() {
+        UnrolledLinkedListStack<Integer> stack = new UnrolledLinkedListStack<>(chunkSize);
+        for(int i = 0; i < size; i++) {
+            stack.add(item);
+        }
+        return stack;
+    }
+
+    @Benchmark
+    public LinkedListQueue<Integer> fillLinkedListQueue() {
+        LinkedListQueue<Integer> queue = new LinkedListQueue<>();
+        for(int i = 0; i < size; i++) {
+            queue.enqueue(item);
+        }
+        return queue;
+    }
+
+    @Benchmark
+    public UnrolledLinkedListQueue<Integer> fillUnrolledQueue() {
+        UnrolledLinkedListQueue<Integer> queue = new UnrolledLinkedListQueue<>(chunkSize);
+        for(int i = 0; i < size; i++) {
+            queue.enqueue(item);
+        }
+        return queue;
+    }
+}
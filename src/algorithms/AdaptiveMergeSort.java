@@ -0,0 +1,162 @@
+package algorithms;
+
+import util.OutUtil;
+import util.RandUtil;
+
+/**
+ * This is a version of {@link MergeSort} with the optimizations you would want when sorting real data. The idea is the
+ * same as in TimSort (the sort Java itself uses for objects).
+ *
+ * 1. Real data is rarely random. It often contains long stretches that are already in order (runs), either ascending or
+ * descending. Instead of splitting the array in halves blindly, we scan it once and cut it into those natural runs.
+ * Descending runs are reversed in place. A fully sorted or fully reversed array is a single run, and is sorted in
+ * linear time.
+ *
+ * 2. Runs that are very short (random data is full of them) are extended to MIN_RUN elements with {@link InsertionSort},
+ * which is faster than mergesort for small subarrays.
+ *
+ * 3. The runs are then merged pairwise, pass after pass, until only one is left. If the last element of the left run is
+ * not bigger than the first element of the right run, the two are already in order and no comparisons are needed.
+ *
+ * 4. The regular mergesort copies every subarray into aux before merging it back. Here, each pass merges from one array
+ * into the other, and the next pass goes the other way round, so the arrays just swap roles and the copy disappears.
+ *
+ * All ranges in this class are half open: lo is the first index and hi is the index after the last one.
+ */
+public class AdaptiveMergeSort {
+    /**
+     * Runs shorter than this are extended with insertion sort.
+     */
+    private static final int MIN_RUN = 32;
+
+    /**
+     * Sort the input array. The sort is stable.
+     * @param a Array of items to sort.
+     */
+    public static void sort(Comparable[] a) {
+        int n = a.length;
+        if(n < 2) {
+            return;
+        }
+
+        // runs[i] is the first index of run i. Every run but the last one is at least MIN_RUN long, so this is enough
+        // room for all of them plus n as the end of the last run.
+        int[] runs = new int[n / MIN_RUN + 2];
+        int count = 0;
+
+        for(int lo = 0; lo < n;) {
+            runs[count++] = lo;
+
+            int hi = findRun(a, lo, n);
+            if(hi - lo < MIN_RUN) {
+                hi = Math.min(lo + MIN_RUN, n);
+                InsertionSort.sort(a, lo, hi);
+            }
+
+            lo = hi;
+        }
+        runs[count] = n;
+
+        if(count == 1) {
+            return; // the whole array was a single run
+        }
+
+        Comparable[] aux = new Comparable[n];
+        Comparable[] src = a, dst = aux;
+
+        while(count > 1) {
+            int merged = 0;
+
+            for(int i = 0; i < count; i += 2) {
+                int lo = runs[i];
+
+                if(i + 1 == count) {
+                    // an odd run out has nothing to be merged with, but it still has to end up in dst
+                    System.arraycopy(src, lo, dst, lo, n - lo);
+                } else {
+                    merge(src, dst, lo, runs[i + 1], runs[i + 2]);
+                }
+
+                runs[merged++] = lo;
+            }
+            runs[merged] = n;
+            count = merged;
+
+            // swap the roles of the two arrays for the next pass
+            Comparable[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if(src != a) {
+            System.arraycopy(src, 0, a, 0, n);
+        }
+    }
+
+    /**
+     * Finds the end of the run that starts at lo. If the run is descending, it is reversed so that it is ascending.
+     *
+     * Only strictly descending runs are reversed: reversing a run with equal elements in it would swap their order and
+     * make the sort unstable.
+     *
+     * @return the index after the last element of the run.
+     */
+    private static int findRun(Comparable[] a, int lo, int n) {
+        int i = lo + 1;
+        if(i == n) {
+            return n;
+        }
+
+        if(a[i].compareTo(a[lo]) < 0) {
+            while(i + 1 < n && a[i + 1].compareTo(a[i]) < 0) i++;
+            reverse(a, lo, i);
+        } else {
+            while(i + 1 < n && a[i + 1].compareTo(a[i]) >= 0) i++;
+        }
+
+        return i + 1;
+    }
+
+    private static void reverse(Comparable[] a, int lo, int hi) {
+        while(lo < hi) {
+            Comparable temp = a[lo];
+            a[lo++] = a[hi];
+            a[hi--] = temp;
+        }
+    }
+
+    /**
+     * Merges src[lo, mid) and src[mid, hi) into dst[lo, hi).
+     */
+    private static void merge(Comparable[] src, Comparable[] dst, int lo, int mid, int hi) {
+        if(src[mid - 1].compareTo(src[mid]) <= 0) {
+            // the two runs are already in order
+            System.arraycopy(src, lo, dst, lo, hi - lo);
+            return;
+        }
+
+        int i = lo, j = mid;
+        for(int k = lo; k < hi; k++) {
+            if(i >= mid)
+                dst[k] = src[j++];
+            else if(j >= hi)
+                dst[k] = src[i++];
+            else if(src[i].compareTo(src[j]) <= 0) // take from the left run on a tie to keep the sort stable
+                dst[k] = src[i++];
+            else
+                dst[k] = src[j++];
+        }
+    }
+
+    public static void main(String[] args) {
+        Double[] array = RandUtil.randDoubleArr(100);
+
+        System.out.println("Before sort");
+        OutUtil.arrayPrint(array);
+
+        AdaptiveMergeSort.sort(array);
+
+        System.out.println("After sort");
+        OutUtil.arrayPrint(array);
+    }
+}
@@ -1,8 +1,12 @@
 package algorithms;
 
-import util.OutUtil;
 import util.RandUtil;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * This is an example of a simple problem that can be solved with sorting.
  *
@@ -11,12 +15,73 @@ import util.RandUtil;
  *
  * Solution: If we sort both arrays, we can maintain two pointers at the beginning. Until both pointers reach the end of the array,
  * we will increment whichever pointer points to the smaller element. Then, we will be able to compare duplicates.
+ *
+ * Sorting isn't the only way, though, and for int and long arrays there are faster ones, depending on the input:
+ *
+ * - Hashing (countBothHash): put the elements of the smaller array into a hash table, and look up every element of the
+ * larger one. This takes O(n + m) time, no matter what the values are. The table uses open addressing on a primitive
+ * array, so no element is ever boxed.
+ *
+ * - A bitset (countBothBitSet): if the values of the smaller array lie in a small range, a bitset with one bit per value
+ * in that range is faster still, since a lookup is just reading a bit. It costs one bit for every value in the range
+ * though, so it only pays off when the range isn't much larger than the arrays.
+ *
+ * - Galloping (countBothGalloping): if both arrays are already sorted, and one is much smaller than the other, going
+ * through the larger array element by element wastes most of the time on elements that are skipped anyway. Instead,
+ * for every element of the smaller array, we search for it in the larger one, starting where the last search ended,
+ * with steps of 1, 2, 4, 8, ... until we pass it, and then with a binary search in the last step. This takes
+ * O(m log(n / m)) time for arrays of m and n elements.
+ *
+ * countBoth picks one of these for the given arrays. All of them count every value once, even if it occurs several
+ * times in an array, and none of them change the arrays they are given.
+ *
+ * Sorted arrays can also be counted on several cores (countBothParallel). The arrays are split by value: the middle
+ * element of the larger array splits it in two, and a binary search finds the same split point in the other array.
+ * Every value then ends up on the same side in both arrays, so both sides can be counted independently, and split
+ * again, until the pieces are small enough.
+ *
+ * The loop that goes through two sorted arrays side by side (the kernel) has a second version using the Vector API,
+ * which compares a whole block of elements against another block with a few SIMD instructions instead of one element
+ * at a time. The Vector API is still an incubator module in Java 17, which is only there when the JVM is started with
+ * --add-modules jdk.incubator.vector. So that version lives in its own source folder (core/src/incubator/java), and is
+ * only loaded if the module is there. It is also only faster from JDK 21 on, so on older JDKs it is only used when asked
+ * for with -Dalgorithms.vectorKernel=true. Otherwise, the plain loop is used.
  */
 public class BothContains {
+    /**
+     * Both arrays count as being of very different sizes once one is this many times larger than the other. Below that,
+     * going through both arrays side by side is faster than galloping.
+     */
+    private static final int GALLOP_RATIO = 32;
+
+    /**
+     * A bitset is used if it has at most this many bits per element of both arrays. Clearing and reading the bitset
+     * then costs less than hashing every element.
+     */
+    private static final int BITSET_BITS_PER_ELEMENT = 64;
+
+    /**
+     * The largest hash table that fits in an array has 2^30 slots, so it can only be kept at most half full for up to
+     * this many elements. Above that, the runs of taken slots get long, and linear probing slows down a lot.
+     */
+    private static final int HASH_MAX_ELEMENTS = 1 << 29;
+
+    /**
+     * countBothParallel stops splitting once both pieces together have at most this many elements.
+     */
+    private static final int PARALLEL_CUTOFF = 1 << 16;
+
+    /**
+     * The first JDK whose JIT makes the Vector API version of the kernel faster than the plain one.
+     */
+    private static final int VECTOR_KERNEL_MIN_VERSION = 21;
+
+    private static final SortedKernel KERNEL = loadKernel();
+
     public static int countBothQuadratic(Integer[] a, Integer[] b) {
         int count = 0;
         for(int i = 0; i < a.length; i++) {
-            for(int j = 0; j < a.length; j++) {
+            for(int j = 0; j < b.length; j++) {
                 if(a[i].equals(b[j])) {
                     count++;
                 }
@@ -26,30 +91,820 @@ public class BothContains {
         return count;
     }
 
+    /**
+     * Counts the elements contained in both arrays, without changing the order of either of them.
+     */
     public static int countBoth(Integer[] a, Integer[] b) {
-        ShellSort.sort(a);
-        ShellSort.sort(b);
+        return countBoth(unbox(a), unbox(b));
+    }
+
+    /**
+     * Counts the values contained in both arrays, using whichever way fits the arrays best:
+     *
+     * - If both are sorted already, going through them side by side, or galloping if one is much smaller.
+     * - Otherwise, a bitset if the values of the smaller array lie in a small enough range, or hashing if they don't.
+     * - If the smaller array is too large for a hash table that is at most half full, sorting copies of both arrays and
+     * going through them side by side.
+     *
+     * Finding out whether the arrays are sorted and what range the values lie in takes one pass over them, which is
+     * cheap compared to any of the ways of counting.
+     */
+    public static int countBoth(int[] a, int[] b) {
+        int[] small = a.length <= b.length ? a : b;
+        int[] large = small == a ? b : a;
+
+        if(isSorted(small) && isSorted(large)) {
+            return large.length / GALLOP_RATIO > small.length ? countBothGalloping(small, large) : countBothSorted(a, b);
+        }
+
+        if(small.length == 0) {
+            return 0;
+        }
+
+        long range = (long) max(small) - min(small) + 1;
+        if(range <= (long) BITSET_BITS_PER_ELEMENT * (small.length + large.length)) {
+            return countBothBitSet(a, b);
+        }
+
+        if(small.length > HASH_MAX_ELEMENTS) {
+            small = Arrays.copyOf(small, small.length);
+            large = Arrays.copyOf(large, large.length);
+            DualPivotQuickSort.sort(small);
+            DualPivotQuickSort.sort(large);
+            return countBothSorted(small, large);
+        }
+
+        return countBothHash(a, b);
+    }
+
+    /**
+     * Same as {@link #countBoth(int[], int[])}, for longs.
+     */
+    public static int countBoth(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+
+        if(isSorted(small) && isSorted(large)) {
+            return large.length / GALLOP_RATIO > small.length ? countBothGalloping(small, large) : countBothSorted(a, b);
+        }
+
+        if(small.length == 0) {
+            return 0;
+        }
+
+        // the range can be larger than a long can hold, in which case the subtraction overflows to a negative number
+        long range = max(small) - min(small) + 1;
+        if(range > 0 && range <= (long) BITSET_BITS_PER_ELEMENT * (small.length + large.length)) {
+            return countBothBitSet(a, b);
+        }
+
+        if(small.length > HASH_MAX_ELEMENTS) {
+            small = Arrays.copyOf(small, small.length);
+            large = Arrays.copyOf(large, large.length);
+            DualPivotQuickSort.sort(small);
+            DualPivotQuickSort.sort(large);
+            return countBothSorted(small, large);
+        }
+
+        return countBothHash(a, b);
+    }
+
+    /**
+     * Counts the values contained in both arrays, with a hash table of the smaller one. Takes O(n + m) time, but gets a
+     * lot slower once the smaller array has more than 2^29 elements, since the table can't grow past 2^30 slots to stay
+     * at most half full. countBoth sorts such arrays instead.
+     */
+    public static int countBothHash(int[] a, int[] b) {
+        int[] small = a.length <= b.length ? a : b;
+        int[] large = small == a ? b : a;
+
+        IntHashSet set = new IntHashSet(small.length);
+        for(int x : small) {
+            set.add(x);
+        }
 
         int count = 0;
+        for(int x : large) {
+            if(set.remove(x)) { // removing it makes sure a value that occurs twice in large is counted once
+                count++;
+            }
+        }
 
-        for(int i = 0, j = 0; i < a.length && j < a.length;) {
-            if(a[i].equals(b[j])) {
+        return count;
+    }
+
+    /**
+     * Same as {@link #countBothHash(int[], int[])}, for longs.
+     */
+    public static int countBothHash(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+
+        LongHashSet set = new LongHashSet(small.length);
+        for(long x : small) {
+            set.add(x);
+        }
+
+        int count = 0;
+        for(long x : large) {
+            if(set.remove(x)) {
                 count++;
-                i++;
-                j++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the values contained in both arrays, with a bitset covering the values of the smaller one. Takes
+     * O(n + m + r / 64) time and r / 8 bytes of memory, where r is the difference between the smallest and the largest
+     * value of the smaller array.
+     */
+    public static int countBothBitSet(int[] a, int[] b) {
+        int[] small = a.length <= b.length ? a : b;
+        int[] large = small == a ? b : a;
+        if(small.length == 0) {
+            return 0;
+        }
+
+        int min = min(small);
+        long range = (long) max(small) - min + 1;
+        long[] bits = new long[(int) ((range + 63) >>> 6)];
+
+        for(int x : small) {
+            long bit = (long) x - min;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+
+        int count = 0;
+        for(int x : large) {
+            long bit = (long) x - min;
+            if(bit < 0 || bit >= range) {
                 continue;
             }
 
-            if(a[i].compareTo(b[j]) <= 0) {
-                i++;
-            } else {
-                j++;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if((bits[word] & mask) != 0) {
+                bits[word] &= ~mask; // so that a value that occurs twice in large is counted once
+                count++;
             }
         }
 
         return count;
     }
 
+    /**
+     * Same as {@link #countBothBitSet(int[], int[])}, for longs. The values of the smaller array must lie in a range of
+     * at most 2^37 values (so that the bitset fits in an array).
+     */
+    public static int countBothBitSet(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+        if(small.length == 0) {
+            return 0;
+        }
+
+        long min = min(small);
+        long range = max(small) - min + 1;
+        if(range <= 0 || (range + 63) >>> 6 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Range of values is too large for a bitset");
+        }
+
+        long[] bits = new long[(int) ((range + 63) >>> 6)];
+
+        for(long x : small) {
+            long bit = x - min;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+
+        int count = 0;
+        for(long x : large) {
+            long bit = x - min; // compared unsigned, since it overflows for values far away from min
+            if(Long.compareUnsigned(bit, range) >= 0) {
+                continue;
+            }
+
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if((bits[word] & mask) != 0) {
+                bits[word] &= ~mask;
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the values contained in both arrays, which must both be sorted, by going through them side by side. Takes
+     * O(n + m) time.
+     */
+    public static int countBothSorted(int[] a, int[] b) {
+        return KERNEL.count(a, 0, a.length, b, 0, b.length);
+    }
+
+    /**
+     * Same as {@link #countBothSorted(int[], int[])}, for longs.
+     */
+    public static int countBothSorted(long[] a, long[] b) {
+        return KERNEL.count(a, 0, a.length, b, 0, b.length);
+    }
+
+    /**
+     * Same as {@link #countBothSorted(int[], int[])}, but splits the work over the cores of the common fork/join pool.
+     */
+    public static int countBothParallel(int[] a, int[] b) {
+        return countBothParallel(a, b, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #countBothSorted(int[], int[])}, but splits the work over the threads of the given pool.
+     */
+    public static int countBothParallel(int[] a, int[] b, ForkJoinPool pool) {
+        return pool.invoke(new IntCountTask(a, 0, a.length, b, 0, b.length));
+    }
+
+    /**
+     * Same as {@link #countBothParallel(int[], int[])}, for longs.
+     */
+    public static int countBothParallel(long[] a, long[] b) {
+        return countBothParallel(a, b, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #countBothParallel(int[], int[], ForkJoinPool)}, for longs.
+     */
+    public static int countBothParallel(long[] a, long[] b, ForkJoinPool pool) {
+        return pool.invoke(new LongCountTask(a, 0, a.length, b, 0, b.length));
+    }
+
+    /**
+     * Counts the values contained in both arrays, which must both be sorted, by galloping through the larger one. Takes
+     * O(m log(n / m)) time for arrays of m and n elements, m &lt;= n.
+     */
+    public static int countBothGalloping(int[] a, int[] b) {
+        int[] small = a.length <= b.length ? a : b;
+        int[] large = small == a ? b : a;
+
+        int count = 0;
+        int j = 0; // everything in large before j is smaller than the current element of small
+
+        for(int i = 0; i < small.length && j < large.length; i = skip(small, i)) {
+            int x = small[i];
+
+            // gallop: find a step after which the element is not smaller than x. the step never goes past the end of
+            // large, so j + step can't overflow, even for arrays of more than 2^30 elements.
+            int lo = j, step = 1;
+            while(step < large.length - j && large[j + step] < x) {
+                lo = j + step;
+                step = (int) Math.min(2L * step, large.length - j);
+            }
+            int hi = Math.min(j + step, large.length - 1);
+
+            // binary search for the first element in [lo, hi] that is not smaller than x
+            while(lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(large[mid] < x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            j = lo;
+            if(large[j] == x) {
+                count++;
+            } else if(large[j] < x) {
+                break; // every element of large is smaller than x
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Same as {@link #countBothGalloping(int[], int[])}, for longs.
+     */
+    public static int countBothGalloping(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = small == a ? b : a;
+
+        int count = 0;
+        int j = 0;
+
+        for(int i = 0; i < small.length && j < large.length; i = skip(small, i)) {
+            long x = small[i];
+
+            int lo = j, step = 1;
+            while(step < large.length - j && large[j + step] < x) {
+                lo = j + step;
+                step = (int) Math.min(2L * step, large.length - j);
+            }
+            int hi = Math.min(j + step, large.length - 1);
+
+            while(lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(large[mid] < x) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            j = lo;
+            if(large[j] == x) {
+                count++;
+            } else if(large[j] < x) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the values contained in both a[aLo..aHi) and b[bLo..bHi), which must both be sorted. The element before
+     * aLo (if there is one) must be smaller than a[aLo], so that a value is never counted by two neighbouring pieces.
+     */
+    interface SortedKernel {
+        int count(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi);
+
+        int count(long[] a, int aLo, int aHi, long[] b, int bLo, int bHi);
+    }
+
+    /**
+     * Loads the Vector API version of the kernel if it is there and faster (or asked for), or the plain one if not.
+     */
+    private static SortedKernel loadKernel() {
+        if(Runtime.version().feature() < VECTOR_KERNEL_MIN_VERSION && !Boolean.getBoolean("algorithms.vectorKernel")) {
+            return new ScalarKernel();
+        }
+
+        SortedKernel vector = loadVectorKernel();
+        return vector != null ? vector : new ScalarKernel();
+    }
+
+    /**
+     * @return the Vector API version of the kernel, or null if the incubator module isn't there.
+     */
+    private static SortedKernel loadVectorKernel() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+
+        try {
+            return (SortedKernel) Class.forName("algorithms.VectorKernel").getDeclaredConstructor().newInstance();
+        } catch(ReflectiveOperationException | LinkageError e) {
+            return null; // not compiled in, e.g. when built without the incubator source folder
+        }
+    }
+
+    /**
+     * Goes through both arrays side by side, one element at a time.
+     */
+    static class ScalarKernel implements SortedKernel {
+        @Override
+        public int count(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+            int count = 0;
+
+            for(int i = aLo, j = bLo; i < aHi && j < bHi;) {
+                if(a[i] < b[j]) {
+                    i++;
+                } else if(a[i] > b[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i = skip(a, i, aHi);
+                    j = skip(b, j, bHi);
+                }
+            }
+
+            return count;
+        }
+
+        @Override
+        public int count(long[] a, int aLo, int aHi, long[] b, int bLo, int bHi) {
+            int count = 0;
+
+            for(int i = aLo, j = bLo; i < aHi && j < bHi;) {
+                if(a[i] < b[j]) {
+                    i++;
+                } else if(a[i] > b[j]) {
+                    j++;
+                } else {
+                    count++;
+                    i = skip(a, i, aHi);
+                    j = skip(b, j, bHi);
+                }
+            }
+
+            return count;
+        }
+    }
+
+    /**
+     * Counts the values in both a[aLo..aHi) and b[bLo..bHi), splitting them by value until the pieces are small.
+     */
+    private static class IntCountTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int aLo, aHi;
+        private final int[] b;
+        private final int bLo, bHi;
+
+        IntCountTask(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+            this.a = a;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.b = b;
+            this.bLo = bLo;
+            this.bHi = bHi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if((aHi - aLo) + (bHi - bLo) <= PARALLEL_CUTOFF || aLo == aHi || bLo == bHi) {
+                return KERNEL.count(a, aLo, aHi, b, bLo, bHi);
+            }
+
+            // split the larger piece at its middle, moved to the start of the run of equal values it is in. if that
+            // run starts at the beginning, split at its end instead.
+            boolean splitA = aHi - aLo >= bHi - bLo;
+            int[] x = splitA ? a : b;
+            int xLo = splitA ? aLo : bLo, xHi = splitA ? aHi : bHi;
+
+            int mid = (xLo + xHi) >>> 1;
+            int xSplit = firstNotLess(x, xLo, xHi, x[mid]);
+            if(xSplit == xLo) {
+                xSplit = firstGreater(x, xLo, xHi, x[mid]);
+                if(xSplit == xHi) {
+                    return KERNEL.count(a, aLo, aHi, b, bLo, bHi); // every element is the same
+                }
+            }
+
+            // everything smaller than x[xSplit] goes left, in both arrays
+            int[] y = splitA ? b : a;
+            int ySplit = splitA ? firstNotLess(y, bLo, bHi, x[xSplit]) : firstNotLess(y, aLo, aHi, x[xSplit]);
+            int aSplit = splitA ? xSplit : ySplit, bSplit = splitA ? ySplit : xSplit;
+
+            IntCountTask left = new IntCountTask(a, aLo, aSplit, b, bLo, bSplit);
+            left.fork();
+            int right = new IntCountTask(a, aSplit, aHi, b, bSplit, bHi).compute();
+
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Same as IntCountTask, for longs.
+     */
+    private static class LongCountTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final int aLo, aHi;
+        private final long[] b;
+        private final int bLo, bHi;
+
+        LongCountTask(long[] a, int aLo, int aHi, long[] b, int bLo, int bHi) {
+            this.a = a;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.b = b;
+            this.bLo = bLo;
+            this.bHi = bHi;
+        }
+
+        @Override
+        protected Integer compute() {
+            if((aHi - aLo) + (bHi - bLo) <= PARALLEL_CUTOFF || aLo == aHi || bLo == bHi) {
+                return KERNEL.count(a, aLo, aHi, b, bLo, bHi);
+            }
+
+            boolean splitA = aHi - aLo >= bHi - bLo;
+            long[] x = splitA ? a : b;
+            int xLo = splitA ? aLo : bLo, xHi = splitA ? aHi : bHi;
+
+            int mid = (xLo + xHi) >>> 1;
+            int xSplit = firstNotLess(x, xLo, xHi, x[mid]);
+            if(xSplit == xLo) {
+                xSplit = firstGreater(x, xLo, xHi, x[mid]);
+                if(xSplit == xHi) {
+                    return KERNEL.count(a, aLo, aHi, b, bLo, bHi);
+                }
+            }
+
+            long[] y = splitA ? b : a;
+            int ySplit = splitA ? firstNotLess(y, bLo, bHi, x[xSplit]) : firstNotLess(y, aLo, aHi, x[xSplit]);
+            int aSplit = splitA ? xSplit : ySplit, bSplit = splitA ? ySplit : xSplit;
+
+            LongCountTask left = new LongCountTask(a, aLo, aSplit, b, bLo, bSplit);
+            left.fork();
+            int right = new LongCountTask(a, aSplit, aHi, b, bSplit, bHi).compute();
+
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * A set of ints, stored in a single array with open addressing and linear probing: an element is stored at the
+     * index its hash points to, or if that is taken, at the next free index after it. 0 marks a free slot, so whether 0
+     * itself is in the set is stored separately.
+     */
+    private static class IntHashSet {
+        private final int[] table;
+        private final int mask;
+        private boolean hasZero;
+
+        IntHashSet(int expected) {
+            // at most half full, so that the runs of taken slots stay short
+            int capacity = capacity(expected);
+            table = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        void add(int x) {
+            if(x == 0) {
+                hasZero = true;
+                return;
+            }
+
+            int i = hash(x) & mask;
+            while(table[i] != 0) {
+                if(table[i] == x) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = x;
+        }
+
+        /**
+         * @return whether x was in the set.
+         */
+        boolean remove(int x) {
+            if(x == 0) {
+                boolean had = hasZero;
+                hasZero = false;
+                return had;
+            }
+
+            int i = hash(x) & mask;
+            while(table[i] != 0) {
+                if(table[i] == x) {
+                    delete(i);
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        /**
+         * Frees slot i. The elements after it in the same run may have been pushed past their own slot by the element
+         * in slot i, so they are moved back where needed, or a lookup would stop at the free slot before finding them.
+         */
+        private void delete(int i) {
+            int free = i;
+            for(int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = hash(table[j]) & mask;
+                // the element at j can move to free unless its home slot lies after free (cyclically, up to j)
+                if(((j - home) & mask) >= ((j - free) & mask)) {
+                    table[free] = table[j];
+                    free = j;
+                }
+            }
+            table[free] = 0;
+        }
+
+        private static int hash(int x) {
+            int h = x * 0x9E3779B9; // multiplying by a large odd number spreads out keys that are close together
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Same as IntHashSet, for longs.
+     */
+    private static class LongHashSet {
+        private final long[] table;
+        private final int mask;
+        private boolean hasZero;
+
+        LongHashSet(int expected) {
+            int capacity = capacity(expected);
+            table = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        void add(long x) {
+            if(x == 0) {
+                hasZero = true;
+                return;
+            }
+
+            int i = hash(x) & mask;
+            while(table[i] != 0) {
+                if(table[i] == x) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = x;
+        }
+
+        boolean remove(long x) {
+            if(x == 0) {
+                boolean had = hasZero;
+                hasZero = false;
+                return had;
+            }
+
+            int i = hash(x) & mask;
+            while(table[i] != 0) {
+                if(table[i] == x) {
+                    delete(i);
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            return false;
+        }
+
+        private void delete(int i) {
+            int free = i;
+            for(int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = hash(table[j]) & mask;
+                if(((j - home) & mask) >= ((j - free) & mask)) {
+                    table[free] = table[j];
+                    free = j;
+                }
+            }
+            table[free] = 0;
+        }
+
+        private static int hash(long x) {
+            long h = x * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * The capacity for a hash table of the given number of elements: the power of two that keeps it at most half full,
+     * as long as that fits in an array.
+     */
+    private static int capacity(int expected) {
+        if(expected >= 1 << 30) {
+            throw new IllegalArgumentException("Array is too large for a hash table");
+        }
+
+        return (int) Math.min(1 << 30, Long.highestOneBit(Math.max(2, expected) * 2L - 1) << 1);
+    }
+
+    /**
+     * Returns the index after the run of elements equal to a[i].
+     */
+    private static int skip(int[] a, int i) {
+        return skip(a, i, a.length);
+    }
+
+    private static int skip(long[] a, int i) {
+        return skip(a, i, a.length);
+    }
+
+    /**
+     * Returns the index after the run of elements equal to a[i], but at most hi.
+     */
+    private static int skip(int[] a, int i, int hi) {
+        int x = a[i];
+        do {
+            i++;
+        } while(i < hi && a[i] == x);
+        return i;
+    }
+
+    private static int skip(long[] a, int i, int hi) {
+        long x = a[i];
+        do {
+            i++;
+        } while(i < hi && a[i] == x);
+        return i;
+    }
+
+    /**
+     * Binary search for the first index in the sorted range a[lo..hi) whose element is not smaller than x, or hi.
+     */
+    private static int firstNotLess(int[] a, int lo, int hi, int x) {
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Binary search for the first index in the sorted range a[lo..hi) whose element is greater than x, or hi.
+     */
+    private static int firstGreater(int[] a, int lo, int hi, int x) {
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int firstNotLess(long[] a, int lo, int hi, long x) {
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] < x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int firstGreater(long[] a, int lo, int hi, long x) {
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid] <= x) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean isSorted(int[] a) {
+        for(int i = 1; i < a.length; i++) {
+            if(a[i - 1] > a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSorted(long[] a) {
+        for(int i = 1; i < a.length; i++) {
+            if(a[i - 1] > a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int min(int[] a) {
+        int min = a[0];
+        for(int x : a) {
+            min = Math.min(min, x);
+        }
+        return min;
+    }
+
+    private static int max(int[] a) {
+        int max = a[0];
+        for(int x : a) {
+            max = Math.max(max, x);
+        }
+        return max;
+    }
+
+    private static long min(long[] a) {
+        long min = a[0];
+        for(long x : a) {
+            min = Math.min(min, x);
+        }
+        return min;
+    }
+
+    private static long max(long[] a) {
+        long max = a[0];
+        for(long x : a) {
+            max = Math.max(max, x);
+        }
+        return max;
+    }
+
+    private static int[] unbox(Integer[] a) {
+        int[] unboxed = new int[a.length];
+        for(int i = 0; i < a.length; i++) {
+            unboxed[i] = a[i];
+        }
+        return unboxed;
+    }
+
     public static void main(String[] args) {
         for(int i = 0; i < 100000; i++) {
             Integer[] a1 = RandUtil.uniqueRandIntArr(10, 0, 15);
@@ -59,5 +914,65 @@ public class BothContains {
                 throw new RuntimeException();
             }
         }
+
+        // every engine has to agree, on small and large ranges of values, sorted or not
+        Random random = new Random();
+        for(int i = 0; i < 10000; i++) {
+            int bound = random.nextBoolean() ? 100 : Integer.MAX_VALUE;
+            int[] a = random.ints(random.nextInt(50), -bound, bound).toArray();
+            int[] b = random.ints(random.nextInt(2000), -bound, bound).toArray();
+
+            int expected = countBothHash(a, b);
+            int bitSet = bound == 100 ? countBothBitSet(a, b) : expected; // a bitset of 2^32 bits is too slow here
+            int auto = countBoth(a, b);
+
+            Arrays.sort(a);
+            Arrays.sort(b);
+            int sorted = countBothSorted(a, b);
+            int galloping = countBothGalloping(a, b);
+            int autoSorted = countBoth(a, b);
+
+            if(bitSet != expected || auto != expected || sorted != expected || galloping != expected
+                    || autoSorted != expected) {
+                throw new RuntimeException();
+            }
+        }
+
+        // countBothParallel only splits arrays above PARALLEL_CUTOFF. long runs of equal values make the split points
+        // land inside runs, which must still be counted once. the Vector API kernel is checked whenever the module is
+        // there (run with --add-modules jdk.incubator.vector), even on JDKs where it isn't used by default.
+        SortedKernel scalar = new ScalarKernel();
+        SortedKernel vector = loadVectorKernel();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for(int i = 0; i < 40; i++) {
+            int bound = i % 4 == 0 ? 20 : i % 4 == 1 ? 5000 : Integer.MAX_VALUE; // 20 values make runs of thousands
+            int[] a = random.ints(PARALLEL_CUTOFF + random.nextInt(4 * PARALLEL_CUTOFF), -bound, bound).toArray();
+            int[] b = random.ints(PARALLEL_CUTOFF / 2 + random.nextInt(4 * PARALLEL_CUTOFF), -bound, bound).toArray();
+            if(i % 5 == 0) {
+                Arrays.fill(a, a.length / 4, 3 * a.length / 4, 7); // one run longer than the cutoff
+            }
+            Arrays.sort(a);
+            Arrays.sort(b);
+            long[] aLongs = Arrays.stream(a).asLongStream().map(x -> x * 0x100000001L).toArray();
+            long[] bLongs = Arrays.stream(b).asLongStream().map(x -> x * 0x100000001L).toArray();
+
+            int expected = scalar.count(a, 0, a.length, b, 0, b.length);
+            int sorted = countBothSorted(a, b);
+            int sortedLongs = countBothSorted(aLongs, bLongs);
+            int parallel = countBothParallel(a, b, pool);
+            int parallelLongs = countBothParallel(aLongs, bLongs, pool);
+            int common = countBothParallel(b, a);
+            int commonLongs = countBothParallel(bLongs, aLongs);
+            int vectors = vector == null ? expected : vector.count(a, 0, a.length, b, 0, b.length);
+            int vectorLongs = vector == null ? expected : vector.count(aLongs, 0, aLongs.length, bLongs, 0, bLongs.length);
+
+            if(sorted != expected || sortedLongs != expected || parallel != expected || parallelLongs != expected
+                    || common != expected || commonLongs != expected || vectors != expected || vectorLongs != expected) {
+                throw new RuntimeException();
+            }
+        }
+        pool.shutdown();
+
+        System.out.println("All engines agree" + (vector == null ? "" : ", including the Vector API kernel"));
     }
 }
@@ -0,0 +1,255 @@
+package algorithms;
+
+import util.OutUtil;
+import util.RandUtil;
+
+/**
+ * Dual-pivot quicksort is the variant of quicksort Java uses to sort primitive arrays. Instead of partitioning around
+ * one pivot, it picks two pivots p <= q and partitions the array into three parts in a single pass:
+ *
+ * [ less than p | between p and q | greater than q ]
+ *
+ * and then sorts the three parts recursively. It makes about as many comparisons as the classic quicksort, but fewer
+ * passes over memory, which is what makes it faster in practice.
+ *
+ * The pivots are taken from one third and two thirds into the subarray, so that sorted and reversed input split
+ * evenly. Small subarrays are handed off to {@link InsertionSort}.
+ *
+ * Quicksort can still take quadratic time on unlucky input. To guarantee NlgN, this is an introsort: every recursive
+ * call is given a depth budget of about 2lgN, and a subarray that runs out of it is sorted with {@link HeapSort}
+ * instead, which is NlgN in the worst case. Unlike {@link MergeSort}, nothing is allocated, but the sort is not stable.
+ */
+public class DualPivotQuickSort {
+    /**
+     * Subarrays smaller than this are sorted with insertion sort.
+     */
+    private static final int INSERTION_CUTOFF = 27;
+
+    public static void sort(Comparable[] a) {
+        sort(a, 0, a.length - 1, depthLimit(a.length));
+    }
+
+    /*
+    Primitive overloads of the same algorithm.
+     */
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length - 1, depthLimit(a.length));
+    }
+
+    public static void sort(long[] a) {
+        sort(a, 0, a.length - 1, depthLimit(a.length));
+    }
+
+    /**
+     * Comparing doubles with < is a lot faster than Double.compare, but it doesn't order NaN (every comparison with NaN
+     * is false) and it treats -0.0 and 0.0 as equal. So before sorting, all NaN values are moved to the end, where they
+     * belong, and every -0.0 is turned into 0.0. After sorting, the right number of zeros at the start of the zeros are
+     * turned back into -0.0. The result is the same ordering Double.compare gives.
+     */
+    public static void sort(double[] a) {
+        int end = a.length;
+        for(int i = end - 1; i >= 0; i--) {
+            if(a[i] != a[i]) { // only NaN is not equal to itself
+                a[i] = a[--end];
+                a[end] = Double.NaN;
+            }
+        }
+
+        int negativeZeros = 0;
+        for(int i = 0; i < end; i++) {
+            if(a[i] == 0.0 && Double.doubleToRawLongBits(a[i]) != 0) {
+                a[i] = 0.0;
+                negativeZeros++;
+            }
+        }
+
+        sort(a, 0, end - 1, depthLimit(end));
+
+        if(negativeZeros > 0) {
+            // binary search for the first zero
+            int lo = 0, hi = end;
+            while(lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if(a[mid] < 0.0) lo = mid + 1;
+                else hi = mid;
+            }
+
+            for(int i = 0; i < negativeZeros; i++) {
+                a[lo + i] = -0.0;
+            }
+        }
+    }
+
+    private static int depthLimit(int n) {
+        return 2 * (32 - Integer.numberOfLeadingZeros(n));
+    }
+
+    private static void sort(Comparable[] a, int lo, int hi, int depth) {
+        if(hi - lo < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        if(depth == 0) {
+            HeapSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        int third = (hi - lo) / 3;
+        swap(a, lo, lo + third);
+        swap(a, hi, hi - third);
+        if(a[hi].compareTo(a[lo]) < 0) swap(a, lo, hi);
+
+        Comparable p = a[lo], q = a[hi];
+
+        int lt = lo + 1, gt = hi - 1, i = lo + 1;
+        while(i <= gt) {
+            if(a[i].compareTo(p) < 0) swap(a, lt++, i++);
+            else if(q.compareTo(a[i]) < 0) swap(a, i, gt--);
+            else i++;
+        }
+
+        swap(a, lo, --lt);
+        swap(a, hi, ++gt);
+
+        sort(a, lo, lt - 1, depth - 1);
+        if(p.compareTo(q) < 0) sort(a, lt + 1, gt - 1, depth - 1);
+        sort(a, gt + 1, hi, depth - 1);
+    }
+
+    private static void swap(Comparable[] a, int i, int j) {
+        Comparable temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void sort(int[] a, int lo, int hi, int depth) {
+        if(hi - lo < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        if(depth == 0) {
+            HeapSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        int third = (hi - lo) / 3;
+        swap(a, lo, lo + third);
+        swap(a, hi, hi - third);
+        if(a[hi] < a[lo]) swap(a, lo, hi);
+
+        int p = a[lo], q = a[hi];
+
+        int lt = lo + 1, gt = hi - 1, i = lo + 1;
+        while(i <= gt) {
+            if(a[i] < p) swap(a, lt++, i++);
+            else if(q < a[i]) swap(a, i, gt--);
+            else i++;
+        }
+
+        swap(a, lo, --lt);
+        swap(a, hi, ++gt);
+
+        sort(a, lo, lt - 1, depth - 1);
+        if(p < q) sort(a, lt + 1, gt - 1, depth - 1);
+        sort(a, gt + 1, hi, depth - 1);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void sort(long[] a, int lo, int hi, int depth) {
+        if(hi - lo < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        if(depth == 0) {
+            HeapSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        int third = (hi - lo) / 3;
+        swap(a, lo, lo + third);
+        swap(a, hi, hi - third);
+        if(a[hi] < a[lo]) swap(a, lo, hi);
+
+        long p = a[lo], q = a[hi];
+
+        int lt = lo + 1, gt = hi - 1, i = lo + 1;
+        while(i <= gt) {
+            if(a[i] < p) swap(a, lt++, i++);
+            else if(q < a[i]) swap(a, i, gt--);
+            else i++;
+        }
+
+        swap(a, lo, --lt);
+        swap(a, hi, ++gt);
+
+        sort(a, lo, lt - 1, depth - 1);
+        if(p < q) sort(a, lt + 1, gt - 1, depth - 1);
+        sort(a, gt + 1, hi, depth - 1);
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static void sort(double[] a, int lo, int hi, int depth) {
+        if(hi - lo < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        if(depth == 0) {
+            HeapSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        int third = (hi - lo) / 3;
+        swap(a, lo, lo + third);
+        swap(a, hi, hi - third);
+        if(a[hi] < a[lo]) swap(a, lo, hi);
+
+        double p = a[lo], q = a[hi];
+
+        int lt = lo + 1, gt = hi - 1, i = lo + 1;
+        while(i <= gt) {
+            if(a[i] < p) swap(a, lt++, i++);
+            else if(q < a[i]) swap(a, i, gt--);
+            else i++;
+        }
+
+        swap(a, lo, --lt);
+        swap(a, hi, ++gt);
+
+        sort(a, lo, lt - 1, depth - 1);
+        if(p < q) sort(a, lt + 1, gt - 1, depth - 1);
+        sort(a, gt + 1, hi, depth - 1);
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void main(String[] args) {
+        Double[] array = RandUtil.randDoubleArr(100);
+
+        System.out.println("Before sort");
+        OutUtil.arrayPrint(array);
+
+        DualPivotQuickSort.sort(array);
+
+        System.out.println("After sort");
+        OutUtil.arrayPrint(array);
+    }
+}
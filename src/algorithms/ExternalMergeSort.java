@@ -0,0 +1,259 @@
+package algorithms;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * {@link MergeSort} needs the whole input, plus an auxiliary array, in memory. When the data is bigger than the heap,
+ * we can still sort it by applying the same idea on disk:
+ *
+ * 1. Read as many records as fit into the memory budget, sort them with mergesort and write them to a temporary file.
+ * Each of these files is called a run. Repeat until the whole input has been read.
+ *
+ * 2. Merge all of the runs at once. Just like in the regular merge, we repeatedly take the smallest of the first
+ * remaining elements of each run, except that there are k runs instead of two. A priority queue holding the first
+ * element of every run tells us which one is the smallest in lgk time.
+ *
+ * Every run needs its own read buffer during the merge, so the number of runs that can be merged at once is limited by
+ * the memory budget as well. If there are more runs than that, they are merged in groups into bigger runs first.
+ *
+ * The sort is stable: runs are cut from the input in order, mergesort is stable, and when the first elements of two
+ * runs are equal, the one from the earlier run is taken first.
+ */
+public class ExternalMergeSort<T> {
+    /**
+     * The smallest read or write buffer used for a run, in bytes.
+     */
+    private static final int MIN_BUFFER = 1 << 16;
+
+    /**
+     * Bytes per record needed on top of the record itself, for the references to it. The most are needed while a
+     * chunk is turned into an array: the list has up to 1.5 references per record (the rest is room to grow), and the
+     * array 1 more. The list is dropped before the array is sorted, so the aux array of the comparator mergesort (half
+     * a reference per record) comes on top of the array alone. That is 2.5 references of at most 8 bytes each.
+     */
+    private static final int REFERENCE_OVERHEAD = 20;
+
+    private final RecordFormat<T> format;
+    private final Comparator<? super T> comparator;
+    private final long memoryBudget;
+    private final Path tempDirectory;
+
+    /**
+     * @param format How records are stored in the input and output files
+     * @param comparator The order to sort the records in
+     * @param memoryBudget Roughly how many bytes the sort may use for records and buffers
+     * @param tempDirectory Where to put the runs. This needs as much free space as the input takes up.
+     */
+    public ExternalMergeSort(RecordFormat<T> format, Comparator<? super T> comparator, long memoryBudget, Path tempDirectory) {
+        if(memoryBudget < 2L * MIN_BUFFER) {
+            throw new IllegalArgumentException();
+        }
+
+        this.format = format;
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    public ExternalMergeSort(RecordFormat<T> format, Comparator<? super T> comparator, long memoryBudget) {
+        this(format, comparator, memoryBudget, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Sorts the records of the input file into the output file. The input file is not modified.
+     */
+    public void sort(Path input, Path output) throws IOException {
+        List<Path> created = new ArrayList<>(); // every temporary file, so they can all be removed at the end
+
+        try {
+            List<Path> runs = createRuns(input, created);
+
+            // as long as there are more runs than can be merged at once, merge them in groups
+            int fanIn = (int) Math.max(2, memoryBudget / MIN_BUFFER - 1);
+            while(runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+
+                for(int i = 0; i < runs.size(); i += fanIn) {
+                    Path run = createTempFile(created);
+                    merge(runs.subList(i, Math.min(i + fanIn, runs.size())), run);
+                    merged.add(run);
+                }
+
+                for(Path run : runs) {
+                    Files.delete(run);
+                }
+                runs = merged;
+            }
+
+            if(runs.size() == 1) {
+                // a single run is already the sorted output
+                Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, output);
+            }
+        } finally {
+            for(Path path : created) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Cuts the input into sorted runs that each fit into the memory budget.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Path> createRuns(Path input, List<Path> created) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        List<T> chunk = new ArrayList<>();
+
+        try(RecordFormat.Input in = new RecordFormat.Input(FileChannel.open(input, StandardOpenOption.READ), MIN_BUFFER)) {
+            long used = 0;
+            T record;
+
+            while((record = format.read(in)) != null) {
+                chunk.add(record);
+                used += format.memorySize(record) + REFERENCE_OVERHEAD;
+
+                if(used >= memoryBudget || chunk.size() == Integer.MAX_VALUE - 8) {
+                    T[] records = (T[]) chunk.toArray();
+                    chunk = new ArrayList<>(); // so the old list can be collected while the records are sorted
+                    runs.add(writeRun(records, created));
+                    used = 0;
+                }
+            }
+        }
+
+        if(!chunk.isEmpty()) {
+            T[] records = (T[]) chunk.toArray();
+            chunk = null;
+            runs.add(writeRun(records, created));
+        }
+
+        return runs;
+    }
+
+    private Path writeRun(T[] records, List<Path> created) throws IOException {
+        MergeSort.sort(records, comparator);
+
+        Path run = createTempFile(created);
+        try(RecordFormat.Output out = new RecordFormat.Output(FileChannel.open(run, StandardOpenOption.WRITE), MIN_BUFFER)) {
+            for(T record : records) {
+                format.write(record, out);
+            }
+        }
+
+        return run;
+    }
+
+    /**
+     * Merges the sorted runs into one sorted file (k-way merge).
+     */
+    private void merge(List<Path> runs, Path output) throws IOException {
+        // the budget is shared between the read buffers of the runs and the write buffer
+        int bufferSize = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_BUFFER, memoryBudget / (runs.size() + 1)));
+
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, runs.size()), (x, y) -> {
+            int cmp = comparator.compare(x.head, y.head);
+            return cmp != 0 ? cmp : Integer.compare(x.index, y.index); // on a tie, the earlier run goes first
+        });
+
+        List<Cursor> cursors = new ArrayList<>();
+        try(RecordFormat.Output out = new RecordFormat.Output(FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), bufferSize)) {
+            for(int i = 0; i < runs.size(); i++) {
+                Cursor cursor = new Cursor(i, new RecordFormat.Input(FileChannel.open(runs.get(i), StandardOpenOption.READ), bufferSize));
+                cursors.add(cursor);
+
+                if(cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+
+            while(!queue.isEmpty()) {
+                Cursor smallest = queue.poll();
+                format.write(smallest.head, out);
+
+                if(smallest.advance()) {
+                    queue.add(smallest);
+                }
+            }
+        } finally {
+            for(Cursor cursor : cursors) {
+                cursor.in.close();
+            }
+        }
+    }
+
+    private Path createTempFile(List<Path> created) throws IOException {
+        Path path = Files.createTempFile(tempDirectory, "run", ".tmp");
+        created.add(path);
+
+        return path;
+    }
+
+    /**
+     * The current position in one of the runs being merged.
+     */
+    private class Cursor {
+        final int index;
+        final RecordFormat.Input in;
+        T head;
+
+        Cursor(int index, RecordFormat.Input in) {
+            this.index = index;
+            this.in = in;
+        }
+
+        /**
+         * Moves on to the next record of the run.
+         * @return false if the run is exhausted.
+         */
+        boolean advance() throws IOException {
+            head = format.read(in);
+            return head != null;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path input = Files.createTempFile("input", ".bin");
+        Path output = Files.createTempFile("output", ".bin");
+
+        // write a million random ints, about 4 MB on disk but a lot more once they are boxed on the heap
+        Random random = new Random();
+        try(RecordFormat.Output out = new RecordFormat.Output(FileChannel.open(input, StandardOpenOption.WRITE), MIN_BUFFER)) {
+            for(int i = 0; i < 1000000; i++) {
+                RecordFormat.ints().write(random.nextInt(), out);
+            }
+        }
+
+        // sort them with a budget of 1 MB, which forces the sort to go through a lot of runs
+        new ExternalMergeSort<>(RecordFormat.ints(), Comparator.<Integer>naturalOrder(), 1 << 20).sort(input, output);
+
+        try(RecordFormat.Input in = new RecordFormat.Input(FileChannel.open(output, StandardOpenOption.READ), MIN_BUFFER)) {
+            Integer previous = null, current;
+            int count = 0;
+            while((current = RecordFormat.ints().read(in)) != null) {
+                if(previous != null && previous > current) {
+                    throw new RuntimeException("Output is not sorted");
+                }
+                previous = current;
+                count++;
+            }
+
+            System.out.printf("Sorted %d ints%n", count);
+        }
+
+        Files.delete(input);
+        Files.delete(output);
+    }
+}
@@ -0,0 +1,180 @@
+package algorithms;
+
+import util.OutUtil;
+import util.RandUtil;
+
+/**
+ * Heapsort puts the array into the shape of a binary heap, where every element is at least as large as its two
+ * children. The largest element is then at the root. We swap it with the last element, shrink the heap by one, and let
+ * the new root "sink" down to where it belongs, which brings the next largest element to the root. Repeating this sorts
+ * the array from the back to the front.
+ *
+ * Heapsort always runs in NlgN time and sorts in place, without an auxiliary array. In practice it is slower than
+ * quicksort or mergesort because it jumps around the array a lot, so it is mostly used as a safety net: introsort runs
+ * quicksort and switches to heapsort when the recursion gets too deep (see {@link DualPivotQuickSort}).
+ *
+ * The heap is indexed from 1 to make the math simple (the children of k are 2k and 2k + 1), so every array access
+ * subtracts 1. Heapsort is not stable.
+ */
+public class HeapSort {
+    public static void sort(Comparable[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(Comparable[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int n = to - from;
+        for(int k = n / 2; k >= 1; k--) {
+            sink(a, from, k, n);
+        }
+
+        while(n > 1) {
+            swap(a, from, from + n - 1);
+            sink(a, from, 1, --n);
+        }
+    }
+
+    private static void sink(Comparable[] a, int from, int k, int n) {
+        while(2 * k <= n) {
+            int j = 2 * k;
+            if(j < n && a[from + j - 1].compareTo(a[from + j]) < 0) j++;
+            if(!(a[from + k - 1].compareTo(a[from + j - 1]) < 0)) break;
+            swap(a, from + k - 1, from + j - 1);
+            k = j;
+        }
+    }
+
+    private static void swap(Comparable[] a, int i, int j) {
+        Comparable temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    /*
+    Primitive overloads of the same algorithm. The double version compares with Double.compare, so -0.0 sinks below 0.0
+    and NaN values rise to the end.
+     */
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(int[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int n = to - from;
+        for(int k = n / 2; k >= 1; k--) {
+            sink(a, from, k, n);
+        }
+
+        while(n > 1) {
+            swap(a, from, from + n - 1);
+            sink(a, from, 1, --n);
+        }
+    }
+
+    private static void sink(int[] a, int from, int k, int n) {
+        while(2 * k <= n) {
+            int j = 2 * k;
+            if(j < n && a[from + j - 1] < a[from + j]) j++;
+            if(!(a[from + k - 1] < a[from + j - 1])) break;
+            swap(a, from + k - 1, from + j - 1);
+            k = j;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(long[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int n = to - from;
+        for(int k = n / 2; k >= 1; k--) {
+            sink(a, from, k, n);
+        }
+
+        while(n > 1) {
+            swap(a, from, from + n - 1);
+            sink(a, from, 1, --n);
+        }
+    }
+
+    private static void sink(long[] a, int from, int k, int n) {
+        while(2 * k <= n) {
+            int j = 2 * k;
+            if(j < n && a[from + j - 1] < a[from + j]) j++;
+            if(!(a[from + k - 1] < a[from + j - 1])) break;
+            swap(a, from + k - 1, from + j - 1);
+            k = j;
+        }
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void sort(double[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(double[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int n = to - from;
+        for(int k = n / 2; k >= 1; k--) {
+            sink(a, from, k, n);
+        }
+
+        while(n > 1) {
+            swap(a, from, from + n - 1);
+            sink(a, from, 1, --n);
+        }
+    }
+
+    private static void sink(double[] a, int from, int k, int n) {
+        while(2 * k <= n) {
+            int j = 2 * k;
+            if(j < n && Double.compare(a[from + j - 1], a[from + j]) < 0) j++;
+            if(!(Double.compare(a[from + k - 1], a[from + j - 1]) < 0)) break;
+            swap(a, from + k - 1, from + j - 1);
+            k = j;
+        }
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void main(String[] args) {
+        Double[] array = RandUtil.randDoubleArr(10);
+
+        System.out.println("Before sort");
+        OutUtil.arrayPrint(array);
+
+        HeapSort.sort(array);
+
+        System.out.println("After sort");
+        OutUtil.arrayPrint(array);
+    }
+}
@@ -3,15 +3,35 @@ package algorithms;
 import util.OutUtil;
 import util.RandUtil;
 
+import java.util.Comparator;
+
 /**
  * Insertion sort is another elementary sorting algorithm. For every element we encounter, we will swap it with every
  * larger element to the left. This works especially well on partially sorted arrays, because the elements don't have
  * to move as far back. For a fully sorted array, the algorithm runs in linear time.
+ *
+ * The double version compares with Double.compare, so -0.0 comes before 0.0 and NaN values end up last, the same
+ * ordering Double.compareTo gives the boxed version.
  */
 public class InsertionSort {
     public static void sort(Comparable[] a) {
-        for(int i = 1; i < a.length; i++) { // there's no point in starting at 0, since there would be no elements to swap to the left.
-            for(int j = i; j > 0; j--) {
+        sort(a, 0, a.length);
+    }
+
+    /**
+     * Sort only part of the array, leaving everything outside of it untouched. This is useful for algorithms like
+     * mergesort, which can hand small subarrays off to insertion sort.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     */
+    public static void sort(Comparable[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from + 1; i < to; i++) { // there's no point in starting at from, since there would be no elements to swap to the left.
+            for(int j = i; j > from; j--) {
                 // index j represents the location of the element at position i as it is moved throughout the array.
                 if(a[j].compareTo(a[j - 1]) < 0) {
                     Comparable temp = a[j];
@@ -24,6 +44,96 @@ public class InsertionSort {
         }
     }
 
+    /**
+     * Sort the array in the order defined by the comparator instead of the elements' natural order. This makes it
+     * possible to sort by something other than compareTo, like a secondary key.
+     * @param a Array to sort
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, Comparator<? super T> c) {
+        sort(a, 0, a.length, c);
+    }
+
+    /**
+     * Sort only the portion [from, to) of the array in the order defined by the comparator.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from + 1; i < to; i++) {
+            for(int j = i; j > from && c.compare(a[j], a[j - 1]) < 0; j--) {
+                T temp = a[j];
+                a[j] = a[j - 1];
+                a[j - 1] = temp;
+            }
+        }
+    }
+
+    /*
+    The primitive overloads below are the same algorithm without the boxing: comparisons are done with < instead of a
+    call to compareTo, and the elements sit right next to each other in memory instead of behind a pointer each.
+     */
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(int[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from + 1; i < to; i++) {
+            for(int j = i; j > from && a[j] < a[j - 1]; j--) {
+                int temp = a[j];
+                a[j] = a[j - 1];
+                a[j - 1] = temp;
+            }
+        }
+    }
+
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(long[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from + 1; i < to; i++) {
+            for(int j = i; j > from && a[j] < a[j - 1]; j--) {
+                long temp = a[j];
+                a[j] = a[j - 1];
+                a[j - 1] = temp;
+            }
+        }
+    }
+
+    public static void sort(double[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(double[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from + 1; i < to; i++) {
+            for(int j = i; j > from && Double.compare(a[j], a[j - 1]) < 0; j--) {
+                double temp = a[j];
+                a[j] = a[j - 1];
+                a[j - 1] = temp;
+            }
+        }
+    }
+
     public static void main(String[] args) {
         Double[] array = RandUtil.randDoubleArr(10);
 
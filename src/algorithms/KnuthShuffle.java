@@ -1,19 +1,592 @@
 package algorithms;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
 /**
  * This is a simple linear-time shuffling algorithm. Although shuffling seems like a trivial task, it is important that
  * the shuffling is uniform to ensure your code functions properly and cannot be exploited.
  *
  * The knuth shuffle goes through every element in the array, and swaps that element with a random element between 0 and i
  * (inclusive) where i is the location of that element.
+ *
+ * The random numbers come from a RandomGenerator, which can be passed in: a SplittableRandom or a Xoshiro256PlusPlus
+ * created with a seed gives the same shuffle every time. Without one, ThreadLocalRandom is used. Math.random() would
+ * work too, but every thread shares the same generator behind it, which every call updates with an atomic
+ * compare-and-set, so threads that shuffle at the same time keep getting in each other's way.
+ *
+ * A shuffle of a large array is slow mostly because of the memory, not the random numbers: every swap goes to a random
+ * place in the array, which is almost never in the cache. parallelShuffle uses MergeShuffle instead:
+ *
+ * - The array is split into blocks that fit in the cache, and every block is shuffled as above, on its own core.
+ * - Then, two neighbouring shuffled blocks are merged, like in merge sort, except that every next element is picked from
+ * the left or the right block by flipping a coin instead of comparing them. Once one of the blocks runs out, the
+ * remaining elements are put at random places among the ones before them, like in the plain shuffle. That is only
+ * about sqrt(n) elements on average, so a merge is mostly a sequential pass over the memory.
+ * - Merging continues up to the whole array, like in merge sort. Merges of different pairs of blocks run in parallel.
+ *
+ * Every block and merge gets a generator of its own, split from the one passed in before any work is forked. So the
+ * result only depends on the generator, not on the number of cores or the order the blocks happen to run in.
  */
 public class KnuthShuffle {
+    /**
+     * Blocks of at most this many elements are shuffled with the plain shuffle. 2^16 ints take 256 KB, which fits in
+     * the L2 cache of most CPUs.
+     */
+    private static final int PARALLEL_CUTOFF = 1 << 16;
+
     public static void shuffle(Object[] a) {
-        for(int i = 0; i < a.length; i++) {
-            int r = (int) (Math.random() * (i + 1));
+        shuffle(a, 0, a.length, ThreadLocalRandom.current());
+    }
+
+    public static void shuffle(Object[] a, RandomGenerator random) {
+        shuffle(a, 0, a.length, random);
+    }
+
+    /**
+     * Shuffles the elements from index from (inclusive) to index to (exclusive).
+     */
+    public static void shuffle(Object[] a, int from, int to, RandomGenerator random) {
+        checkRange(a.length, from, to);
+
+        for(int i = from; i < to; i++) {
+            int r = from + random.nextInt(i - from + 1);
             Object temp = a[r];
             a[r] = a[i];
             a[i] = temp;
         }
     }
+
+    public static void shuffle(int[] a) {
+        shuffle(a, 0, a.length, ThreadLocalRandom.current());
+    }
+
+    public static void shuffle(int[] a, RandomGenerator random) {
+        shuffle(a, 0, a.length, random);
+    }
+
+    public static void shuffle(int[] a, int from, int to, RandomGenerator random) {
+        checkRange(a.length, from, to);
+
+        for(int i = from; i < to; i++) {
+            int r = from + random.nextInt(i - from + 1);
+            int temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    public static void shuffle(long[] a) {
+        shuffle(a, 0, a.length, ThreadLocalRandom.current());
+    }
+
+    public static void shuffle(long[] a, RandomGenerator random) {
+        shuffle(a, 0, a.length, random);
+    }
+
+    public static void shuffle(long[] a, int from, int to, RandomGenerator random) {
+        checkRange(a.length, from, to);
+
+        for(int i = from; i < to; i++) {
+            int r = from + random.nextInt(i - from + 1);
+            long temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    public static void shuffle(double[] a) {
+        shuffle(a, 0, a.length, ThreadLocalRandom.current());
+    }
+
+    public static void shuffle(double[] a, RandomGenerator random) {
+        shuffle(a, 0, a.length, random);
+    }
+
+    public static void shuffle(double[] a, int from, int to, RandomGenerator random) {
+        checkRange(a.length, from, to);
+
+        for(int i = from; i < to; i++) {
+            int r = from + random.nextInt(i - from + 1);
+            double temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    public static void parallelShuffle(Object[] a) {
+        parallelShuffle(a, 0, a.length, new SplittableRandom());
+    }
+
+    public static void parallelShuffle(Object[] a, SplittableGenerator random) {
+        parallelShuffle(a, 0, a.length, random);
+    }
+
+    public static void parallelShuffle(Object[] a, int from, int to, SplittableGenerator random) {
+        checkRange(a.length, from, to);
+        new ObjectShuffleTask(a, from, to, random).invoke();
+    }
+
+    public static void parallelShuffle(int[] a) {
+        parallelShuffle(a, 0, a.length, new SplittableRandom());
+    }
+
+    public static void parallelShuffle(int[] a, SplittableGenerator random) {
+        parallelShuffle(a, 0, a.length, random);
+    }
+
+    public static void parallelShuffle(int[] a, int from, int to, SplittableGenerator random) {
+        checkRange(a.length, from, to);
+        new IntShuffleTask(a, from, to, random).invoke();
+    }
+
+    public static void parallelShuffle(long[] a) {
+        parallelShuffle(a, 0, a.length, new SplittableRandom());
+    }
+
+    public static void parallelShuffle(long[] a, SplittableGenerator random) {
+        parallelShuffle(a, 0, a.length, random);
+    }
+
+    public static void parallelShuffle(long[] a, int from, int to, SplittableGenerator random) {
+        checkRange(a.length, from, to);
+        new LongShuffleTask(a, from, to, random).invoke();
+    }
+
+    public static void parallelShuffle(double[] a) {
+        parallelShuffle(a, 0, a.length, new SplittableRandom());
+    }
+
+    public static void parallelShuffle(double[] a, SplittableGenerator random) {
+        parallelShuffle(a, 0, a.length, random);
+    }
+
+    public static void parallelShuffle(double[] a, int from, int to, SplittableGenerator random) {
+        checkRange(a.length, from, to);
+        new DoubleShuffleTask(a, from, to, random).invoke();
+    }
+
+    private static void checkRange(int length, int from, int to) {
+        if(from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Merges the shuffled ranges [lo, mid) and [mid, hi) into one shuffled range. i is where the next element goes, the
+     * elements of the left range that haven't been picked yet are in [i, j), and the ones of the right range in [j, hi).
+     * Picking from the right swaps a[j] into place, and the left element there moves to the end of the left range.
+     */
+    private static void merge(Object[] a, int lo, int mid, int hi, RandomGenerator random) {
+        int i = lo, j = mid;
+        long bits = 0;
+        int bitsLeft = 0;
+
+        // while both ranges have elements left, the coin only decides whether a[i] and a[j] are swapped, and whether j
+        // moves. that is done without branching, since a branch on a coin flip is mispredicted half of the time.
+        while(i < j && j < hi) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong(); // 64 coin flips at once
+                bitsLeft = Long.SIZE;
+            }
+            boolean right = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            Object x = a[i], y = a[j];
+            a[i] = right ? y : x;
+            a[j] = right ? x : y;
+            j += right ? 1 : 0;
+            i++;
+        }
+
+        // one of the ranges is empty. keep flipping until a coin picks the empty one
+        while(true) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            boolean right = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            if(right) {
+                if(j == hi) {
+                    break;
+                }
+                Object temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+                j++;
+            } else if(i == j) {
+                break;
+            }
+            i++;
+        }
+
+        // one of the ranges ran out: the rest go to random places among the elements before them
+        for(; i < hi; i++) {
+            int r = lo + random.nextInt(i - lo + 1);
+            Object temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    private static void merge(int[] a, int lo, int mid, int hi, RandomGenerator random) {
+        int i = lo, j = mid;
+        long bits = 0;
+        int bitsLeft = 0;
+
+        // the swap is done with an xor mask, which is 0 if the coin picked the left range
+        while(i < j && j < hi) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            int right = (int) bits & 1;
+            bits >>>= 1;
+            bitsLeft--;
+
+            int x = a[i], y = a[j];
+            int diff = (x ^ y) & -right;
+            a[i] = x ^ diff;
+            a[j] = y ^ diff;
+            j += right;
+            i++;
+        }
+
+        while(true) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            boolean right = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            if(right) {
+                if(j == hi) {
+                    break;
+                }
+                int temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+                j++;
+            } else if(i == j) {
+                break;
+            }
+            i++;
+        }
+
+        for(; i < hi; i++) {
+            int r = lo + random.nextInt(i - lo + 1);
+            int temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    private static void merge(long[] a, int lo, int mid, int hi, RandomGenerator random) {
+        int i = lo, j = mid;
+        long bits = 0;
+        int bitsLeft = 0;
+
+        while(i < j && j < hi) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            int right = (int) bits & 1;
+            bits >>>= 1;
+            bitsLeft--;
+
+            long x = a[i], y = a[j];
+            long diff = (x ^ y) & -right;
+            a[i] = x ^ diff;
+            a[j] = y ^ diff;
+            j += right;
+            i++;
+        }
+
+        while(true) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            boolean right = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            if(right) {
+                if(j == hi) {
+                    break;
+                }
+                long temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+                j++;
+            } else if(i == j) {
+                break;
+            }
+            i++;
+        }
+
+        for(; i < hi; i++) {
+            int r = lo + random.nextInt(i - lo + 1);
+            long temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    private static void merge(double[] a, int lo, int mid, int hi, RandomGenerator random) {
+        int i = lo, j = mid;
+        long bits = 0;
+        int bitsLeft = 0;
+
+        while(i < j && j < hi) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            boolean right = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            double x = a[i], y = a[j];
+            a[i] = right ? y : x;
+            a[j] = right ? x : y;
+            j += right ? 1 : 0;
+            i++;
+        }
+
+        while(true) {
+            if(bitsLeft == 0) {
+                bits = random.nextLong();
+                bitsLeft = Long.SIZE;
+            }
+            boolean right = (bits & 1) != 0;
+            bits >>>= 1;
+            bitsLeft--;
+
+            if(right) {
+                if(j == hi) {
+                    break;
+                }
+                double temp = a[i];
+                a[i] = a[j];
+                a[j] = temp;
+                j++;
+            } else if(i == j) {
+                break;
+            }
+            i++;
+        }
+
+        for(; i < hi; i++) {
+            int r = lo + random.nextInt(i - lo + 1);
+            double temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    /**
+     * Shuffles [lo, hi) with MergeShuffle. The subclasses only tell it which shuffle and merge to call for their type of
+     * array.
+     */
+    private abstract static class ShuffleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int lo, hi;
+        final SplittableGenerator random;
+
+        ShuffleTask(int lo, int hi, SplittableGenerator random) {
+            this.lo = lo;
+            this.hi = hi;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if(hi - lo <= PARALLEL_CUTOFF) {
+                shuffle(lo, hi, random);
+                return;
+            }
+
+            // split the generators here, so that the result doesn't depend on which task runs first
+            int mid = (lo + hi) >>> 1;
+            ShuffleTask left = task(lo, mid, random.split());
+            ShuffleTask right = task(mid, hi, random.split());
+            invokeAll(left, right);
+
+            merge(lo, mid, hi, random);
+        }
+
+        abstract ShuffleTask task(int lo, int hi, SplittableGenerator random);
+
+        abstract void shuffle(int lo, int hi, RandomGenerator random);
+
+        abstract void merge(int lo, int mid, int hi, RandomGenerator random);
+    }
+
+    private static class ObjectShuffleTask extends ShuffleTask {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] a;
+
+        ObjectShuffleTask(Object[] a, int lo, int hi, SplittableGenerator random) {
+            super(lo, hi, random);
+            this.a = a;
+        }
+
+        @Override
+        ShuffleTask task(int lo, int hi, SplittableGenerator random) {
+            return new ObjectShuffleTask(a, lo, hi, random);
+        }
+
+        @Override
+        void shuffle(int lo, int hi, RandomGenerator random) {
+            KnuthShuffle.shuffle(a, lo, hi, random);
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi, RandomGenerator random) {
+            KnuthShuffle.merge(a, lo, mid, hi, random);
+        }
+    }
+
+    private static class IntShuffleTask extends ShuffleTask {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+
+        IntShuffleTask(int[] a, int lo, int hi, SplittableGenerator random) {
+            super(lo, hi, random);
+            this.a = a;
+        }
+
+        @Override
+        ShuffleTask task(int lo, int hi, SplittableGenerator random) {
+            return new IntShuffleTask(a, lo, hi, random);
+        }
+
+        @Override
+        void shuffle(int lo, int hi, RandomGenerator random) {
+            KnuthShuffle.shuffle(a, lo, hi, random);
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi, RandomGenerator random) {
+            KnuthShuffle.merge(a, lo, mid, hi, random);
+        }
+    }
+
+    private static class LongShuffleTask extends ShuffleTask {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+
+        LongShuffleTask(long[] a, int lo, int hi, SplittableGenerator random) {
+            super(lo, hi, random);
+            this.a = a;
+        }
+
+        @Override
+        ShuffleTask task(int lo, int hi, SplittableGenerator random) {
+            return new LongShuffleTask(a, lo, hi, random);
+        }
+
+        @Override
+        void shuffle(int lo, int hi, RandomGenerator random) {
+            KnuthShuffle.shuffle(a, lo, hi, random);
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi, RandomGenerator random) {
+            KnuthShuffle.merge(a, lo, mid, hi, random);
+        }
+    }
+
+    private static class DoubleShuffleTask extends ShuffleTask {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] a;
+
+        DoubleShuffleTask(double[] a, int lo, int hi, SplittableGenerator random) {
+            super(lo, hi, random);
+            this.a = a;
+        }
+
+        @Override
+        ShuffleTask task(int lo, int hi, SplittableGenerator random) {
+            return new DoubleShuffleTask(a, lo, hi, random);
+        }
+
+        @Override
+        void shuffle(int lo, int hi, RandomGenerator random) {
+            KnuthShuffle.shuffle(a, lo, hi, random);
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi, RandomGenerator random) {
+            KnuthShuffle.merge(a, lo, mid, hi, random);
+        }
+    }
+
+    public static void main(String[] args) {
+        // every one of the 24 orders of 4 elements should come up about equally often
+        int[] counts = new int[24];
+        int[] a = new int[4];
+        RandomGenerator xoshiro = RandomGenerator.of("Xoshiro256PlusPlus");
+        for(int n = 0; n < 240000; n++) {
+            for(int i = 0; i < a.length; i++) {
+                a[i] = i;
+            }
+            shuffle(a, xoshiro);
+
+            // the rank of the permutation among all 24
+            int rank = 0;
+            for(int i = 0; i < a.length; i++) {
+                int smaller = 0;
+                for(int j = i + 1; j < a.length; j++) {
+                    if(a[j] < a[i]) {
+                        smaller++;
+                    }
+                }
+                rank = rank * (a.length - i) + smaller;
+            }
+            counts[rank]++;
+        }
+        System.out.println("Counts of the 24 orders (about 10000 each): " + Arrays.toString(counts));
+
+        // the same seed gives the same shuffle, for the plain and the parallel one
+        int[] b = new int[1000000];
+        int[] c = new int[1000000];
+        for(int i = 0; i < b.length; i++) {
+            b[i] = c[i] = i;
+        }
+        parallelShuffle(b, new SplittableRandom(42));
+        parallelShuffle(c, new SplittableRandom(42));
+        System.out.println("Same seed, same parallel shuffle: " + Arrays.equals(b, c));
+
+        // shuffling a subrange leaves the rest alone
+        String[] words = {"a", "b", "c", "d", "e", "f", "g", "h"};
+        shuffle(words, 2, 6, new SplittableRandom(7));
+        System.out.println("Shuffled from 2 to 6: " + Arrays.toString(words));
+
+        // the parallel shuffle is still a permutation
+        Arrays.sort(b);
+        for(int i = 0; i < b.length; i++) {
+            if(b[i] != i) {
+                throw new RuntimeException();
+            }
+        }
+        System.out.println("Parallel shuffle is a permutation");
+    }
 }
@@ -0,0 +1,268 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * LSD (least significant digit first) radix sort doesn't compare keys at all. It looks at the keys one digit at a time,
+ * here one byte (R = 256 possible values) at a time, starting from the lowest byte.
+ *
+ * Every pass is a key-indexed counting sort on one digit: we count how many keys have each digit, turn the counts into
+ * starting positions, and then copy every key to the next free position for its digit. This is stable, so after
+ * sorting by the lowest byte and then by the second lowest byte, keys with the same second byte are still in order of
+ * their lowest byte, and so on. After the last pass, the keys are fully sorted.
+ *
+ * That makes 4 passes over an int[] and 8 over a long[], so the sort runs in linear time, no matter how the input
+ * looks. The price is an auxiliary array the size of the input.
+ *
+ * Java's ints are signed, so a negative number has its highest bit set and would end up after the positive ones. To
+ * fix that, the highest bit is flipped when looking at the highest byte.
+ *
+ * Very small arrays are sorted with {@link InsertionSort} instead, since the counting arrays alone would cost more than
+ * sorting them.
+ */
+public class LSDRadixSort {
+    private static final int R = 256;
+
+    /**
+     * Arrays smaller than this are sorted with insertion sort.
+     */
+    private static final int INSERTION_CUTOFF = 64;
+
+    public static void sort(int[] a) {
+        int n = a.length;
+        if(n < INSERTION_CUTOFF) {
+            InsertionSort.sort(a);
+            return;
+        }
+
+        // count the digits of every pass in one go, instead of reading the whole array again before each pass
+        int[][] count = new int[4][R + 1];
+        for(int x : a) {
+            for(int pass = 0; pass < 4; pass++) {
+                count[pass][digit(x, pass) + 1]++;
+            }
+        }
+
+        int[] aux = new int[n];
+        int[] src = a, dst = aux;
+
+        for(int pass = 0; pass < 4; pass++) {
+            int[] c = count[pass];
+            if(c[digit(src[0], pass) + 1] == n) {
+                continue; // every key has the same digit here, so this pass wouldn't move anything
+            }
+
+            for(int r = 0; r < R; r++) {
+                c[r + 1] += c[r];
+            }
+
+            for(int x : src) {
+                dst[c[digit(x, pass)]++] = x;
+            }
+
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if(src != a) {
+            System.arraycopy(src, 0, a, 0, n);
+        }
+    }
+
+    /**
+     * @return the digit of x used in the given pass, with the sign bit flipped in the last pass.
+     */
+    private static int digit(int x, int pass) {
+        int d = (x >>> (pass * 8)) & 0xFF;
+        return pass == 3 ? d ^ 0x80 : d;
+    }
+
+    public static void sort(long[] a) {
+        int n = a.length;
+        if(n < INSERTION_CUTOFF) {
+            InsertionSort.sort(a);
+            return;
+        }
+
+        // count the digits of every pass in one go, instead of reading the whole array again before each pass
+        int[][] count = new int[8][R + 1];
+        for(long x : a) {
+            for(int pass = 0; pass < 8; pass++) {
+                count[pass][digit(x, pass) + 1]++;
+            }
+        }
+
+        long[] aux = new long[n];
+        long[] src = a, dst = aux;
+
+        for(int pass = 0; pass < 8; pass++) {
+            int[] c = count[pass];
+            if(c[digit(src[0], pass) + 1] == n) {
+                continue; // every key has the same digit here, so this pass wouldn't move anything
+            }
+
+            for(int r = 0; r < R; r++) {
+                c[r + 1] += c[r];
+            }
+
+            for(long x : src) {
+                dst[c[digit(x, pass)]++] = x;
+            }
+
+            long[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if(src != a) {
+            System.arraycopy(src, 0, a, 0, n);
+        }
+    }
+
+    /**
+     * @return the digit of x used in the given pass, with the sign bit flipped in the last pass.
+     */
+    private static int digit(long x, int pass) {
+        int d = (int) (x >>> (pass * 8)) & 0xFF;
+        return pass == 7 ? d ^ 0x80 : d;
+    }
+
+    /**
+     * Sort objects by a int key. The keys are extracted once up front, and then the objects are moved along with their
+     * keys in every pass. The sort is stable, so sorting by a secondary key first and then by the primary key gives
+     * the order of both.
+     * @param a Array to sort
+     * @param key Function that extracts the key of an element
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sortByIntKey(T[] a, ToIntFunction<? super T> key) {
+        int n = a.length;
+        if(n < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, Comparator.comparingInt(key));
+            return;
+        }
+
+        int[] keys = new int[n];
+        int[][] count = new int[4][R + 1];
+        for(int i = 0; i < n; i++) {
+            keys[i] = key.applyAsInt(a[i]);
+            for(int pass = 0; pass < 4; pass++) {
+                count[pass][digit(keys[i], pass) + 1]++;
+            }
+        }
+
+        int[] keySrc = keys, keyDst = new int[n];
+        T[] src = a, dst = (T[]) new Object[n];
+
+        for(int pass = 0; pass < 4; pass++) {
+            int[] c = count[pass];
+            if(c[digit(keySrc[0], pass) + 1] == n) {
+                continue;
+            }
+
+            for(int r = 0; r < R; r++) {
+                c[r + 1] += c[r];
+            }
+
+            for(int i = 0; i < n; i++) {
+                int j = c[digit(keySrc[i], pass)]++;
+                keyDst[j] = keySrc[i];
+                dst[j] = src[i];
+            }
+
+            int[] keyTemp = keySrc;
+            keySrc = keyDst;
+            keyDst = keyTemp;
+            T[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if(src != a) {
+            System.arraycopy(src, 0, a, 0, n);
+        }
+    }
+
+    /**
+     * Sort objects by a long key. The keys are extracted once up front, and then the objects are moved along with their
+     * keys in every pass. The sort is stable, so sorting by a secondary key first and then by the primary key gives
+     * the order of both.
+     * @param a Array to sort
+     * @param key Function that extracts the key of an element
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sortByLongKey(T[] a, ToLongFunction<? super T> key) {
+        int n = a.length;
+        if(n < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, Comparator.comparingLong(key));
+            return;
+        }
+
+        long[] keys = new long[n];
+        int[][] count = new int[8][R + 1];
+        for(int i = 0; i < n; i++) {
+            keys[i] = key.applyAsLong(a[i]);
+            for(int pass = 0; pass < 8; pass++) {
+                count[pass][digit(keys[i], pass) + 1]++;
+            }
+        }
+
+        long[] keySrc = keys, keyDst = new long[n];
+        T[] src = a, dst = (T[]) new Object[n];
+
+        for(int pass = 0; pass < 8; pass++) {
+            int[] c = count[pass];
+            if(c[digit(keySrc[0], pass) + 1] == n) {
+                continue;
+            }
+
+            for(int r = 0; r < R; r++) {
+                c[r + 1] += c[r];
+            }
+
+            for(int i = 0; i < n; i++) {
+                int j = c[digit(keySrc[i], pass)]++;
+                keyDst[j] = keySrc[i];
+                dst[j] = src[i];
+            }
+
+            long[] keyTemp = keySrc;
+            keySrc = keyDst;
+            keyDst = keyTemp;
+            T[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+
+        if(src != a) {
+            System.arraycopy(src, 0, a, 0, n);
+        }
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random();
+        int[] array = new int[100];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = random.nextInt(2000) - 1000;
+        }
+
+        LSDRadixSort.sort(array);
+
+        for(int i = 1; i < array.length; i++) {
+            if(array[i - 1] > array[i]) {
+                throw new RuntimeException();
+            }
+        }
+        System.out.println(Arrays.toString(array));
+
+        // sorting objects by a key, here words by their length
+        String[] words = {"radix", "a", "sort", "by", "length", "of", "the", "word"};
+        LSDRadixSort.sortByIntKey(words, w -> w.length());
+        System.out.println(Arrays.toString(words));
+    }
+}
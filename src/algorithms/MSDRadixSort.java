@@ -0,0 +1,121 @@
+package algorithms;
+
+import util.OutUtil;
+
+/**
+ * MSD (most significant digit first) radix sort sorts strings one character at a time, starting from the first one.
+ *
+ * We do a key-indexed counting sort on the character at position d, which splits the strings into buckets, one for
+ * every character (plus one in front for strings that are shorter than d, since those come first). Every bucket is then
+ * sorted recursively on the character at position d + 1. Strings that differ early are separated after looking at just
+ * a few characters, so unlike a comparison sort, most characters are never looked at more than once.
+ *
+ * Two things keep this fast in practice:
+ *
+ * 1. Most buckets are tiny, and counting sort on a tiny bucket is a lot of work for nothing, so small buckets are sorted
+ * with {@link InsertionSort} instead. The strings in a bucket share the first d characters, so comparing them whole
+ * gives the same order.
+ *
+ * 2. The classic version uses a count array of 256 entries for every bucket. Here, the count array only covers the
+ * characters that actually occur at position d in the bucket, which keeps small alphabets (like digits or lowercase
+ * letters) cheap, and still works for characters outside of ASCII. When all strings have the same character at
+ * position d (a common prefix), the distribution step is skipped altogether.
+ *
+ * The order is the same as String.compareTo, and the sort is stable.
+ */
+public class MSDRadixSort {
+    /**
+     * Buckets smaller than this are sorted with insertion sort.
+     */
+    private static final int INSERTION_CUTOFF = 16;
+
+    public static void sort(String[] a) {
+        String[] aux = new String[a.length];
+
+        sort(a, aux, 0, a.length - 1, 0);
+    }
+
+    /**
+     * Sort a[lo..hi] (inclusive), whose strings all share the first d characters.
+     */
+    private static void sort(String[] a, String[] aux, int lo, int hi, int d) {
+        while(true) {
+            if(hi - lo < INSERTION_CUTOFF) {
+                InsertionSort.sort(a, lo, hi + 1);
+                return;
+            }
+
+            // find the range of characters at position d
+            int min = Character.MAX_VALUE, max = -1;
+            boolean ended = false; // true if any of the strings is only d characters long
+            for(int i = lo; i <= hi; i++) {
+                int c = charAt(a[i], d);
+                if(c < 0) {
+                    ended = true;
+                } else {
+                    if(c < min) min = c;
+                    if(c > max) max = c;
+                }
+            }
+
+            if(max < 0) {
+                return; // every string ends at d, so they are all equal
+            }
+
+            if(min == max && !ended) {
+                // every string has the same character here, so there is nothing to distribute
+                d++;
+                continue;
+            }
+
+            // bucket 0 is for the strings that end at d, bucket 1 + c - min for the character c
+            int buckets = max - min + 2;
+            int[] count = new int[buckets + 1];
+            for(int i = lo; i <= hi; i++) {
+                count[digit(a[i], d, min) + 1]++;
+            }
+
+            for(int r = 0; r < buckets; r++) {
+                count[r + 1] += count[r]; // count[r] is now where bucket r starts
+            }
+
+            for(int i = lo; i <= hi; i++) {
+                aux[count[digit(a[i], d, min)]++] = a[i];
+            }
+
+            System.arraycopy(aux, 0, a, lo, hi - lo + 1);
+
+            // count[r] is now where bucket r ends, which is where bucket r + 1 starts. The strings in bucket 0 are all
+            // equal, so they don't need sorting.
+            for(int r = 1; r < buckets; r++) {
+                sort(a, aux, lo + count[r - 1], lo + count[r] - 1, d + 1);
+            }
+
+            return;
+        }
+    }
+
+    private static int charAt(String s, int d) {
+        return d < s.length() ? s.charAt(d) : -1;
+    }
+
+    /**
+     * @return the bucket of s for position d: 0 if s ends before d, otherwise 1 + the character relative to min.
+     */
+    private static int digit(String s, int d, int min) {
+        return d < s.length() ? s.charAt(d) - min + 1 : 0;
+    }
+
+    public static void main(String[] args) {
+        String[] array = {"she", "sells", "seashells", "by", "the", "sea", "shore", "the", "shells", "she", "sells",
+                "are", "surely", "seashells", "sea", "s", "", "shell"};
+
+        System.out.println("Before sort");
+        OutUtil.arrayPrint(array);
+
+        MSDRadixSort.sort(array);
+
+        System.out.println("After sort");
+        OutUtil.arrayPrint(array);
+    }
+}
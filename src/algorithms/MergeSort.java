@@ -3,6 +3,10 @@ package algorithms;
 import util.OutUtil;
 import util.RandUtil;
 
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Mergesort is a widely used recursive sorting algorithm that runs in NlgN time.
  * It works with the concept of merging two previously sorted arrays, in order to create one large sorted array containing
@@ -15,6 +19,12 @@ import util.RandUtil;
  * a small problem space can often be inefficient.
  */
 public class MergeSort {
+    /**
+     * Below this many elements, a parallel sort or merge is done sequentially. Forking a task costs far more than
+     * sorting a few thousand elements on one thread.
+     */
+    private static final int PARALLEL_CUTOFF = 1 << 13;
+
     /**
      * Sort the input array using Merge Sort.
      * @param a Array of items to sort.
@@ -25,6 +35,49 @@ public class MergeSort {
         sort(a, aux, 0, a.length - 1);
     }
 
+    /**
+     * Sort only the portion [from, to) of the array, leaving everything outside of it untouched.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     */
+    @SuppressWarnings("unchecked")
+    public static void sort(Comparable[] a, int from, int to) {
+        sort(a, from, to, Comparator.naturalOrder());
+    }
+
+    /**
+     * Sort the array in the order defined by the comparator instead of the elements' natural order. This makes it
+     * possible to sort by something other than compareTo, like a secondary key.
+     * @param a Array to sort
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, Comparator<? super T> c) {
+        sort(a, 0, a.length, c);
+    }
+
+    /**
+     * Sort only the portion [from, to) of the array in the order defined by the comparator.
+     *
+     * The auxiliary array only needs to hold half of the portion here (see the comparator version of merge), so sorting
+     * a small slice of a huge array doesn't allocate anything close to the size of the whole array.
+     *
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     * @param c Comparator that defines the order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        T[] aux = (T[]) new Object[(to - from + 1) / 2];
+
+        sort(a, aux, from, to - 1, c);
+    }
+
     /**
      * Sort a portion of the input array.
      * @param a Array to sort
@@ -78,8 +131,8 @@ public class MergeSort {
                 a[k] = aux[j++];
             else if(j > hi) // same thing if other array is exhausted
                 a[k] = aux[i++];
-            else if(aux[i].compareTo(aux[j]) < 0) // if the element in the first array comes before the one in the second
-                a[k] = aux[i++]; // copy over the element in the first array in place
+            else if(aux[i].compareTo(aux[j]) <= 0) // if the element in the first array comes before (or ties with) the one in the second
+                a[k] = aux[i++]; // copy over the element in the first array in place. Taking it on a tie is what keeps the sort stable.
             else
                 a[k] = aux[j++]; // otherwise, copy over the second array.
         }
@@ -87,6 +140,336 @@ public class MergeSort {
         // merged.
     }
 
+    private static <T> void sort(T[] a, T[] aux, int lo, int hi, Comparator<? super T> c) {
+        if(hi <= lo) {
+            return;
+        }
+
+        int mid = lo + (hi - lo) / 2;
+
+        sort(a, aux, lo, mid, c);
+        sort(a, aux, mid + 1, hi, c);
+        merge(a, aux, lo, mid, hi, c);
+    }
+
+    /**
+     * The same merge as above, but only the first half [lo, mid] is copied out, to aux[0..]. The second half can stay
+     * where it is: the next position to write to, k, never passes j, so an element of the second half is never
+     * overwritten before it has been read.
+     */
+    private static <T> void merge(T[] a, T[] aux, int lo, int mid, int hi, Comparator<? super T> c) {
+        int n1 = mid - lo + 1;
+        System.arraycopy(a, lo, aux, 0, n1);
+
+        int i = 0, j = mid + 1, k = lo;
+        while(i < n1 && j <= hi) {
+            if(c.compare(a[j], aux[i]) < 0) // on a tie the element from the first half goes first, to keep the sort stable
+                a[k++] = a[j++];
+            else
+                a[k++] = aux[i++];
+        }
+
+        // whatever is left of the second half is already in place
+        while(i < n1) {
+            a[k++] = aux[i++];
+        }
+    }
+
+    /**
+     * Sort the input array using Merge Sort, spreading the work over the common fork/join pool.
+     * @param a Array of items to sort.
+     */
+    public static void parallelSort(Comparable[] a) {
+        parallelSort(a, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sort the input array using Merge Sort, spreading the work over the given pool.
+     *
+     * Both halves of every subarray are sorted as separate tasks, exactly like the recursive calls in the sequential
+     * version. The merge is split up as well (see {@link MergeTask}), otherwise the final merge of the whole array would
+     * run on a single thread and limit the speedup. The sort is stable, just like the sequential one.
+     *
+     * @param a Array of items to sort.
+     * @param pool The pool to run the sort in.
+     */
+    public static void parallelSort(Comparable[] a, ForkJoinPool pool) {
+        if(a.length <= PARALLEL_CUTOFF) {
+            sort(a);
+            return;
+        }
+
+        Comparable[] aux = new Comparable[a.length];
+
+        pool.invoke(new SortTask(a, aux, 0, a.length - 1));
+    }
+
+    /**
+     * Sorts a[lo..hi] (inclusive), the parallel counterpart of {@link #sort(Comparable[], Comparable[], int, int)}.
+     */
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparable[] a;
+        private final Comparable[] aux;
+        private final int lo;
+        private final int hi;
+
+        SortTask(Comparable[] a, Comparable[] aux, int lo, int hi) {
+            this.a = a;
+            this.aux = aux;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if(hi - lo < PARALLEL_CUTOFF) {
+                sort(a, aux, lo, hi);
+                return;
+            }
+
+            int mid = lo + (hi - lo) / 2;
+
+            invokeAll(new SortTask(a, aux, lo, mid), new SortTask(a, aux, mid + 1, hi));
+
+            // same as merge(), the halves are copied to aux and merged back into a
+            System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+            new MergeTask(aux, a, lo, mid, mid + 1, hi, lo).compute();
+        }
+    }
+
+    /**
+     * Merges src[lo1..hi1] and src[lo2..hi2] (both sorted, inclusive) into dst starting at index k.
+     *
+     * To split the merge in two, we take the middle element of the larger range and binary search for where it belongs
+     * in the other range. Everything before those two points ends up before the middle element in the output, and
+     * everything after them ends up after it, so the element can be placed directly and both sides can be merged
+     * independently.
+     *
+     * Stability depends on how ties are split: elements from the first range must stay in front of equal elements from
+     * the second range. So when the pivot comes from the first range, equal elements in the second range go after it,
+     * and when the pivot comes from the second range, equal elements in the first range go before it.
+     */
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Comparable[] src;
+        private final Comparable[] dst;
+        private final int lo1, hi1, lo2, hi2;
+        private final int k;
+
+        MergeTask(Comparable[] src, Comparable[] dst, int lo1, int hi1, int lo2, int hi2, int k) {
+            this.src = src;
+            this.dst = dst;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1 + 1;
+            int n2 = hi2 - lo2 + 1;
+
+            if(n1 + n2 <= PARALLEL_CUTOFF) {
+                merge(src, lo1, hi1, lo2, hi2, dst, k);
+                return;
+            }
+
+            int m1, m2, pivot;
+            if(n1 >= n2) {
+                m1 = lo1 + (hi1 - lo1) / 2;
+                m2 = firstNotLess(src, lo2, hi2, src[m1]); // equal elements of the second range go after the pivot
+                pivot = k + (m1 - lo1) + (m2 - lo2);
+                dst[pivot] = src[m1];
+
+                invokeAll(new MergeTask(src, dst, lo1, m1 - 1, lo2, m2 - 1, k),
+                        new MergeTask(src, dst, m1 + 1, hi1, m2, hi2, pivot + 1));
+            } else {
+                m2 = lo2 + (hi2 - lo2) / 2;
+                m1 = firstGreater(src, lo1, hi1, src[m2]); // equal elements of the first range go before the pivot
+                pivot = k + (m1 - lo1) + (m2 - lo2);
+                dst[pivot] = src[m2];
+
+                invokeAll(new MergeTask(src, dst, lo1, m1 - 1, lo2, m2 - 1, k),
+                        new MergeTask(src, dst, m1, hi1, m2 + 1, hi2, pivot + 1));
+            }
+        }
+    }
+
+    /**
+     * Sequentially merges src[lo1..hi1] and src[lo2..hi2] into dst starting at index k. Either range may be empty.
+     */
+    private static void merge(Comparable[] src, int lo1, int hi1, int lo2, int hi2, Comparable[] dst, int k) {
+        int i = lo1, j = lo2;
+        while(i <= hi1 && j <= hi2) {
+            if(src[i].compareTo(src[j]) <= 0)
+                dst[k++] = src[i++];
+            else
+                dst[k++] = src[j++];
+        }
+
+        while(i <= hi1) dst[k++] = src[i++];
+        while(j <= hi2) dst[k++] = src[j++];
+    }
+
+    /**
+     * @return the first index in a[lo..hi] whose element is greater than or equal to key, or hi + 1 if there is none.
+     */
+    private static int firstNotLess(Comparable[] a, int lo, int hi, Comparable key) {
+        hi++;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid].compareTo(key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        return lo;
+    }
+
+    /**
+     * @return the first index in a[lo..hi] whose element is greater than key, or hi + 1 if there is none.
+     */
+    private static int firstGreater(Comparable[] a, int lo, int hi, Comparable key) {
+        hi++;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if(a[mid].compareTo(key) <= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        return lo;
+    }
+
+    /*
+    The primitive overloads below are the same algorithm as above without the boxing. Sorting an Integer[] means one
+    object per element, and every comparison follows two pointers and makes a call to compareTo. With an int[], the
+    keys sit right next to each other in memory and are compared with a single instruction.
+
+    The double version merges with Double.compare, which puts -0.0 before 0.0 and every NaN after all other values.
+     */
+
+    /**
+     * Sort the input array of ints using Merge Sort.
+     * @param a Array of items to sort.
+     */
+    public static void sort(int[] a) {
+        int[] aux = new int[a.length];
+
+        sort(a, aux, 0, a.length - 1);
+    }
+
+    private static void sort(int[] a, int[] aux, int lo, int hi) {
+        if(hi <= lo) {
+            return;
+        }
+
+        int mid = lo + (hi - lo) / 2;
+
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid + 1, hi);
+        merge(a, aux, lo, mid, hi);
+    }
+
+    private static void merge(int[] a, int[] aux, int lo, int mid, int hi) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+
+        int i = lo, j = mid + 1;
+        for(int k = lo; k <= hi; k++) {
+            if(i > mid)
+                a[k] = aux[j++];
+            else if(j > hi)
+                a[k] = aux[i++];
+            else if(aux[i] <= aux[j]) // <= keeps equal keys in their original order
+                a[k] = aux[i++];
+            else
+                a[k] = aux[j++];
+        }
+    }
+
+    /**
+     * Sort the input array of longs using Merge Sort.
+     * @param a Array of items to sort.
+     */
+    public static void sort(long[] a) {
+        long[] aux = new long[a.length];
+
+        sort(a, aux, 0, a.length - 1);
+    }
+
+    private static void sort(long[] a, long[] aux, int lo, int hi) {
+        if(hi <= lo) {
+            return;
+        }
+
+        int mid = lo + (hi - lo) / 2;
+
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid + 1, hi);
+        merge(a, aux, lo, mid, hi);
+    }
+
+    private static void merge(long[] a, long[] aux, int lo, int mid, int hi) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+
+        int i = lo, j = mid + 1;
+        for(int k = lo; k <= hi; k++) {
+            if(i > mid)
+                a[k] = aux[j++];
+            else if(j > hi)
+                a[k] = aux[i++];
+            else if(aux[i] <= aux[j]) // <= keeps equal keys in their original order
+                a[k] = aux[i++];
+            else
+                a[k] = aux[j++];
+        }
+    }
+
+    /**
+     * Sort the input array of doubles using Merge Sort.
+     * @param a Array of items to sort.
+     */
+    public static void sort(double[] a) {
+        double[] aux = new double[a.length];
+
+        sort(a, aux, 0, a.length - 1);
+    }
+
+    private static void sort(double[] a, double[] aux, int lo, int hi) {
+        if(hi <= lo) {
+            return;
+        }
+
+        int mid = lo + (hi - lo) / 2;
+
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid + 1, hi);
+        merge(a, aux, lo, mid, hi);
+    }
+
+    private static void merge(double[] a, double[] aux, int lo, int mid, int hi) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+
+        int i = lo, j = mid + 1;
+        for(int k = lo; k <= hi; k++) {
+            if(i > mid)
+                a[k] = aux[j++];
+            else if(j > hi)
+                a[k] = aux[i++];
+            else if(Double.compare(aux[i], aux[j]) <= 0) // <= keeps equal keys in their original order
+                a[k] = aux[i++];
+            else
+                a[k] = aux[j++];
+        }
+    }
+
     public static void main(String[] args) {
         Double[] array = RandUtil.randDoubleArr(10);
 
@@ -0,0 +1,268 @@
+package algorithms;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Describes how records of type T are stored in a file, so that {@link ExternalMergeSort} can read its input, write
+ * sorted runs to disk and read them back again.
+ *
+ * The formats that come with this interface are fixed width binary ints, longs and doubles (big endian, the same layout
+ * DataOutputStream uses) and newline delimited UTF-8 text. Other formats can be plugged in by implementing the three
+ * methods below.
+ */
+public interface RecordFormat<T> {
+    /**
+     * Reads the next record.
+     * @return the record, or null if there are no more records in the input.
+     */
+    T read(Input in) throws IOException;
+
+    void write(T record, Output out) throws IOException;
+
+    /**
+     * A rough estimate of how many bytes of heap the record takes up once it is read into memory. This is what the
+     * memory budget of the sort is measured in.
+     */
+    long memorySize(T record);
+
+    static RecordFormat<Integer> ints() {
+        return new RecordFormat<Integer>() {
+            @Override
+            public Integer read(Input in) throws IOException {
+                return requestRecord(in, Integer.BYTES) ? in.buffer().getInt() : null;
+            }
+
+            @Override
+            public void write(Integer record, Output out) throws IOException {
+                out.reserve(Integer.BYTES).putInt(record);
+            }
+
+            @Override
+            public long memorySize(Integer record) {
+                return 16;
+            }
+        };
+    }
+
+    static RecordFormat<Long> longs() {
+        return new RecordFormat<Long>() {
+            @Override
+            public Long read(Input in) throws IOException {
+                return requestRecord(in, Long.BYTES) ? in.buffer().getLong() : null;
+            }
+
+            @Override
+            public void write(Long record, Output out) throws IOException {
+                out.reserve(Long.BYTES).putLong(record);
+            }
+
+            @Override
+            public long memorySize(Long record) {
+                return 24;
+            }
+        };
+    }
+
+    static RecordFormat<Double> doubles() {
+        return new RecordFormat<Double>() {
+            @Override
+            public Double read(Input in) throws IOException {
+                return requestRecord(in, Double.BYTES) ? in.buffer().getDouble() : null;
+            }
+
+            @Override
+            public void write(Double record, Output out) throws IOException {
+                out.reserve(Double.BYTES).putDouble(record);
+            }
+
+            @Override
+            public long memorySize(Double record) {
+                return 24;
+            }
+        };
+    }
+
+    /**
+     * One record per line of UTF-8 text. The line terminator ('\n') is not part of the record, and a last line without
+     * a terminator is still read as a record.
+     */
+    static RecordFormat<String> lines() {
+        return new RecordFormat<String>() {
+            @Override
+            public String read(Input in) throws IOException {
+                ByteArrayOutputStream partial = null; // holds the start of a line that continues past the end of the buffer
+
+                while(true) {
+                    if(!in.request(1)) {
+                        return partial == null ? null : partial.toString(StandardCharsets.UTF_8);
+                    }
+
+                    ByteBuffer buffer = in.buffer();
+                    int start = buffer.position();
+                    int end = start;
+                    while(end < buffer.limit() && buffer.get(end) != '\n') end++;
+
+                    byte[] bytes = new byte[end - start];
+                    buffer.get(bytes);
+
+                    if(end < buffer.limit()) {
+                        buffer.get(); // skip the '\n'
+
+                        if(partial == null) {
+                            return new String(bytes, StandardCharsets.UTF_8);
+                        }
+                        partial.write(bytes);
+                        return partial.toString(StandardCharsets.UTF_8);
+                    }
+
+                    if(partial == null) {
+                        partial = new ByteArrayOutputStream();
+                    }
+                    partial.write(bytes);
+                }
+            }
+
+            @Override
+            public void write(String record, Output out) throws IOException {
+                out.write(record.getBytes(StandardCharsets.UTF_8));
+                out.reserve(1).put((byte) '\n');
+            }
+
+            @Override
+            public long memorySize(String record) {
+                return 40 + 2L * record.length();
+            }
+        };
+    }
+
+    /**
+     * Makes sure a fixed width record of n bytes can be read. Running out of input between two records is the normal
+     * end of the input, but running out in the middle of one means the input was cut off, and that record would be lost
+     * without a word if it were treated the same way.
+     * @return false if the input ended right after the last record.
+     * @throws EOFException if the input ended in the middle of a record.
+     */
+    private static boolean requestRecord(Input in, int n) throws IOException {
+        if(in.request(n)) {
+            return true;
+        }
+        if(in.buffer().hasRemaining()) {
+            throw new EOFException(in.buffer().remaining() + " bytes left at the end of the input, a record needs " + n);
+        }
+        return false;
+    }
+
+    /**
+     * A buffered reader over a channel. Records are decoded directly from {@link #buffer()}, after calling
+     * {@link #request(int)} to make sure enough bytes are available.
+     */
+    final class Input implements Closeable {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+        private boolean eof;
+
+        public Input(ReadableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            this.buffer.flip(); // start out empty
+        }
+
+        /**
+         * Refills the buffer until at least n bytes can be read from it.
+         * @return false if the input ended before n bytes were available.
+         */
+        public boolean request(int n) throws IOException {
+            if(n > buffer.capacity()) {
+                throw new IllegalArgumentException();
+            }
+
+            while(buffer.remaining() < n && !eof) {
+                buffer.compact();
+                if(channel.read(buffer) < 0) {
+                    eof = true;
+                }
+                buffer.flip();
+            }
+
+            return buffer.remaining() >= n;
+        }
+
+        public ByteBuffer buffer() {
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * A buffered writer over a channel. Fixed width records are encoded directly into the buffer returned by
+     * {@link #reserve(int)}.
+     */
+    final class Output implements Closeable {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        public Output(WritableByteChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        /**
+         * Flushes the buffer if needed, so that at least n bytes can be put into it.
+         */
+        public ByteBuffer reserve(int n) throws IOException {
+            if(n > buffer.capacity()) {
+                throw new IllegalArgumentException();
+            }
+
+            if(buffer.remaining() < n) {
+                flush();
+            }
+
+            return buffer;
+        }
+
+        /**
+         * Writes an arbitrary number of bytes, which may be more than fits into the buffer.
+         */
+        public void write(byte[] bytes) throws IOException {
+            int off = 0;
+            while(off < bytes.length) {
+                if(!buffer.hasRemaining()) {
+                    flush();
+                }
+
+                int n = Math.min(buffer.remaining(), bytes.length - off);
+                buffer.put(bytes, off, n);
+                off += n;
+            }
+        }
+
+        public void flush() throws IOException {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package algorithms;
+
+import util.OutUtil;
+import util.RandUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Often we don't need a fully sorted array, only the k-th smallest element (the median, for example) or the k largest
+ * elements. Both can be found much faster than by sorting everything first.
+ *
+ * Quickselect partitions the array around a pivot just like quicksort, but afterwards it only continues in the part
+ * that contains index k, since the other part can't contain the answer. With random pivots, the part shrinks by a
+ * constant fraction on average, so the total work is N + N/2 + N/4 + ... = linear.
+ *
+ * A sequence of bad pivots can still make quickselect quadratic. So we keep track of how much partitioning work has been
+ * done, and once it goes over a multiple of N, the remaining partitions use the median of medians as the pivot. That
+ * pivot is guaranteed to have at least 30% of the elements on each side of it, which makes the worst case linear.
+ *
+ * For data that doesn't fit in memory (or doesn't need to), {@link #topK(Iterator, int, Comparator)} keeps the k largest
+ * elements seen so far in a heap, so it only ever uses memory for k elements.
+ */
+public class Selection {
+    /**
+     * How many times N elements quickselect may partition before it switches to the median of medians.
+     */
+    private static final int WORK_BUDGET = 8;
+
+    /**
+     * The heap of topK starts out this large, and doubles whenever it is full until it can hold k elements. Some VMs
+     * can't allocate an array of exactly Integer.MAX_VALUE elements, so it stops a little below that.
+     */
+    private static final int MIN_HEAP_CAPACITY = 16;
+    private static final int MAX_HEAP_CAPACITY = Integer.MAX_VALUE - 8;
+
+    /**
+     * Rearranges the array so that a[k] is the element that would be at index k if the array was sorted. Everything
+     * before it is less than or equal to it, and everything after it is greater than or equal to it.
+     * @param a Array to select from
+     * @param k Index (starting from 0) of the element to find
+     * @return the k-th smallest element
+     */
+    public static Comparable select(Comparable[] a, int k) {
+        if(k < 0 || k >= a.length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        select(a, 0, a.length - 1, k, (long) WORK_BUDGET * a.length);
+
+        return a[k];
+    }
+
+    /**
+     * Rearranges the array so that the smallest k elements are at the front, in sorted order. The order of the rest of
+     * the array is unspecified.
+     * @param a Array to sort partially
+     * @param k How many elements to sort
+     */
+    public static void partialSort(Comparable[] a, int k) {
+        if(k < 0 || k > a.length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if(k == 0) {
+            return;
+        }
+
+        select(a, k - 1); // now the first k elements are the k smallest ones
+        MergeSort.sort(a, 0, k);
+    }
+
+    /**
+     * Finds the k largest elements that the iterator returns, in a single pass and with memory for at most k elements.
+     * The heap grows as elements come in, so a huge k costs nothing if the iterator only returns a few.
+     *
+     * A min-heap holds the k largest elements seen so far, with the smallest of them at the root. Every new element is
+     * compared with the root: if it is larger, it replaces the root, which then sinks to its place. Otherwise, it can't
+     * be one of the k largest and is dropped. This takes NlgK time in the worst case, and close to N when most elements
+     * are dropped.
+     *
+     * @param it Elements to choose from
+     * @param k How many elements to keep
+     * @param c Comparator that defines which elements are largest
+     * @return the k largest elements (or fewer if the iterator didn't return k), largest first.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> topK(Iterator<? extends T> it, int k, Comparator<? super T> c) {
+        if(k < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        // indexed from 1, so the children of i are 2i and 2i + 1
+        T[] heap = (T[]) new Object[Math.min(k, MIN_HEAP_CAPACITY) + 1];
+        int n = 0;
+
+        while(it.hasNext()) {
+            T item = it.next();
+
+            if(n < k) {
+                if(n + 1 == heap.length) {
+                    if(heap.length == MAX_HEAP_CAPACITY) {
+                        throw new IllegalStateException("Heap is too large");
+                    }
+                    long doubled = Math.min(2L * heap.length, (long) k + 1);
+                    heap = Arrays.copyOf(heap, (int) Math.min(doubled, MAX_HEAP_CAPACITY));
+                }
+
+                heap[++n] = item;
+                swim(heap, n, c);
+            } else if(k > 0 && c.compare(item, heap[1]) > 0) {
+                heap[1] = item;
+                sink(heap, 1, n, c);
+            }
+        }
+
+        // take the smallest element off the heap until it is empty, filling the result from the back
+        T[] result = (T[]) new Object[n];
+        for(int i = n - 1; i >= 0; i--) {
+            result[i] = heap[1];
+            heap[1] = heap[i + 1];
+            heap[i + 1] = null;
+            sink(heap, 1, i, c);
+        }
+
+        return new ArrayList<>(Arrays.asList(result));
+    }
+
+    private static void select(Comparable[] a, int lo, int hi, int k, long budget) {
+        while(hi > lo) {
+            Comparable v;
+            if(budget > 0) {
+                v = a[lo + ThreadLocalRandom.current().nextInt(hi - lo + 1)];
+            } else {
+                v = medianOfMedians(a, lo, hi);
+            }
+            budget -= hi - lo + 1;
+
+            // 3-way partition around v, like in ThreeWayQuickSort, so that lots of duplicates don't slow it down
+            int lt = lo, gt = hi, i = lo;
+            while(i <= gt) {
+                int cmp = a[i].compareTo(v);
+                if(cmp < 0) swap(a, lt++, i++);
+                else if(cmp > 0) swap(a, i, gt--);
+                else i++;
+            }
+
+            if(k < lt) hi = lt - 1;
+            else if(k > gt) lo = gt + 1;
+            else return; // k is in the part equal to v
+        }
+    }
+
+    /**
+     * Splits a[lo..hi] into groups of 5 and finds the median of each group. The medians are moved to the front of the
+     * range, and their median is selected recursively. At least half of the groups have a median smaller than it, and in
+     * each of those groups three elements are smaller, so around 3/10 of the elements are on each side of it.
+     */
+    private static Comparable medianOfMedians(Comparable[] a, int lo, int hi) {
+        int groups = 0;
+        for(int i = lo; i <= hi; i += 5) {
+            int end = Math.min(i + 5, hi + 1);
+            InsertionSort.sort(a, i, end);
+            swap(a, lo + groups++, i + (end - i - 1) / 2);
+        }
+
+        int mid = lo + (groups - 1) / 2;
+        select(a, lo, lo + groups - 1, mid, 0);
+
+        return a[mid];
+    }
+
+    private static <T> void swim(T[] heap, int i, Comparator<? super T> c) {
+        while(i > 1 && c.compare(heap[i], heap[i / 2]) < 0) {
+            T temp = heap[i];
+            heap[i] = heap[i / 2];
+            heap[i / 2] = temp;
+            i /= 2;
+        }
+    }
+
+    private static <T> void sink(T[] heap, int i, int n, Comparator<? super T> c) {
+        while(2 * i <= n) {
+            int j = 2 * i;
+            if(j < n && c.compare(heap[j + 1], heap[j]) < 0) j++;
+            if(c.compare(heap[i], heap[j]) <= 0) break;
+
+            T temp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = temp;
+            i = j;
+        }
+    }
+
+    private static void swap(Comparable[] a, int i, int j) {
+        Comparable temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void main(String[] args) {
+        Double[] array = RandUtil.randDoubleArr(11);
+
+        System.out.println("Median");
+        System.out.println(Selection.select(array, array.length / 2));
+
+        System.out.println("Smallest 3 first");
+        Selection.partialSort(array, 3);
+        OutUtil.arrayPrint(array);
+
+        System.out.println("Largest 3");
+        System.out.println(Selection.topK(Arrays.asList(array).iterator(), 3, Comparator.<Double>naturalOrder()));
+    }
+}
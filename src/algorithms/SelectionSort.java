@@ -3,6 +3,8 @@ package algorithms;
 import util.OutUtil;
 import util.RandUtil;
 
+import java.util.Comparator;
+
 /**
  * Selection sort is a very basic sort that works by finding the smallest/largest element, index by index.
  *
@@ -16,9 +18,23 @@ import util.RandUtil;
  */
 public class SelectionSort {
     public static void sort(Comparable[] a) {
-        for(int i = 0; i < a.length; i++) {
+        sort(a, 0, a.length);
+    }
+
+    /**
+     * Sort only the portion [from, to) of the array, leaving everything outside of it untouched.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     */
+    public static void sort(Comparable[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from; i < to; i++) {
             int min = i; // this will contain the index of the min element. We set it to i so that if no smaller element to the right is found, we know that the smallest element is already in place.
-            for(int j = i + 1; j < a.length; j++) {
+            for(int j = i + 1; j < to; j++) {
                 if(a[j].compareTo(a[min]) < 0) {
                     min = j; // if the current element is less than the min element, set the new min element.
                 }
@@ -31,6 +47,94 @@ public class SelectionSort {
         }
     }
 
+    /**
+     * Sort the array in the order defined by the comparator instead of the elements' natural order. This makes it
+     * possible to sort by something other than compareTo, like a secondary key.
+     * @param a Array to sort
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, Comparator<? super T> c) {
+        sort(a, 0, a.length, c);
+    }
+
+    /**
+     * Sort only the portion [from, to) of the array in the order defined by the comparator.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        for(int i = from; i < to; i++) {
+            int min = i;
+            for(int j = i + 1; j < to; j++) {
+                if(c.compare(a[j], a[min]) < 0) {
+                    min = j;
+                }
+            }
+
+            T temp = a[min];
+            a[min] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    /*
+    Primitive overloads of the same algorithm, so numeric data doesn't have to be boxed before it can be sorted.
+
+    The double version selects the minimum with Double.compare, so -0.0 is picked before 0.0 and NaN values are picked
+    last.
+     */
+
+    public static void sort(int[] a) {
+        for(int i = 0; i < a.length; i++) {
+            int min = i;
+            for(int j = i + 1; j < a.length; j++) {
+                if(a[j] < a[min]) {
+                    min = j;
+                }
+            }
+
+            int temp = a[min];
+            a[min] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    public static void sort(long[] a) {
+        for(int i = 0; i < a.length; i++) {
+            int min = i;
+            for(int j = i + 1; j < a.length; j++) {
+                if(a[j] < a[min]) {
+                    min = j;
+                }
+            }
+
+            long temp = a[min];
+            a[min] = a[i];
+            a[i] = temp;
+        }
+    }
+
+    public static void sort(double[] a) {
+        for(int i = 0; i < a.length; i++) {
+            int min = i;
+            for(int j = i + 1; j < a.length; j++) {
+                if(Double.compare(a[j], a[min]) < 0) {
+                    min = j;
+                }
+            }
+
+            double temp = a[min];
+            a[min] = a[i];
+            a[i] = temp;
+        }
+    }
+
     public static void main(String[] args) {
         Double[] array = RandUtil.randDoubleArr(10);
 
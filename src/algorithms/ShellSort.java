@@ -3,6 +3,8 @@ package algorithms;
 import util.OutUtil;
 import util.RandUtil;
 
+import java.util.Comparator;
+
 /**
  * Shell sort is a sorting algorithm that is very similar to insertion sort. However, while insertion sort moves elements
  * back by 1 at a time, shell sort moves elements back multiple places. We keep doing this with less and less stride lengths
@@ -18,12 +20,27 @@ import util.RandUtil;
  */
 public class ShellSort {
     public static void sort(Comparable[] a) {
+        sort(a, 0, a.length);
+    }
+
+    /**
+     * Sort only the portion [from, to) of the array, leaving everything outside of it untouched.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     */
+    public static void sort(Comparable[] a, int from, int to) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int n = to - from;
         int h = 1;
-        while(h < a.length / 3) h = h * 3 + 1; // find the largest number for our increment sequence
+        while(h < n / 3) h = h * 3 + 1; // find the largest number for our increment sequence
 
         while(h >= 1) {
-            for(int i = h; i < a.length; i++) {
-                for(int j = i; j >= h; j -= h) { // j cannot be less than h because then j - h would be < 0.
+            for(int i = from + h; i < to; i++) {
+                for(int j = i; j >= from + h; j -= h) { // j cannot be less than from + h because then j - h would be outside of the portion.
                     // Just like in insertion sort, j will represent the position of the element as it is moved throughout.
                     if(a[j].compareTo(a[j - h]) < 0) {
                         // if the element is less than the element h spots to the left
@@ -40,6 +57,98 @@ public class ShellSort {
         }
     }
 
+    /**
+     * Sort the array in the order defined by the comparator instead of the elements' natural order. This makes it
+     * possible to sort by something other than compareTo, like a secondary key.
+     * @param a Array to sort
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, Comparator<? super T> c) {
+        sort(a, 0, a.length, c);
+    }
+
+    /**
+     * Sort only the portion [from, to) of the array in the order defined by the comparator.
+     * @param a Array to sort
+     * @param from First index of the portion to sort
+     * @param to Index after the last element of the portion to sort (exclusive)
+     * @param c Comparator that defines the order
+     */
+    public static <T> void sort(T[] a, int from, int to, Comparator<? super T> c) {
+        if(from < 0 || to > a.length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int n = to - from;
+        int h = 1;
+        while(h < n / 3) h = h * 3 + 1;
+
+        while(h >= 1) {
+            for(int i = from + h; i < to; i++) {
+                for(int j = i; j >= from + h && c.compare(a[j], a[j - h]) < 0; j -= h) {
+                    T temp = a[j];
+                    a[j] = a[j - h];
+                    a[j - h] = temp;
+                }
+            }
+            h /= 3;
+        }
+    }
+
+    /*
+    Primitive overloads of the same algorithm, so numeric data doesn't have to be boxed before it can be sorted.
+
+    The double version compares with Double.compare, so -0.0 ends up before 0.0 and NaN values at the end.
+     */
+
+    public static void sort(int[] a) {
+        int h = 1;
+        while(h < a.length / 3) h = h * 3 + 1;
+
+        while(h >= 1) {
+            for(int i = h; i < a.length; i++) {
+                for(int j = i; j >= h && a[j] < a[j - h]; j -= h) {
+                    int temp = a[j];
+                    a[j] = a[j - h];
+                    a[j - h] = temp;
+                }
+            }
+            h /= 3;
+        }
+    }
+
+    public static void sort(long[] a) {
+        int h = 1;
+        while(h < a.length / 3) h = h * 3 + 1;
+
+        while(h >= 1) {
+            for(int i = h; i < a.length; i++) {
+                for(int j = i; j >= h && a[j] < a[j - h]; j -= h) {
+                    long temp = a[j];
+                    a[j] = a[j - h];
+                    a[j - h] = temp;
+                }
+            }
+            h /= 3;
+        }
+    }
+
+    public static void sort(double[] a) {
+        int h = 1;
+        while(h < a.length / 3) h = h * 3 + 1;
+
+        while(h >= 1) {
+            for(int i = h; i < a.length; i++) {
+                for(int j = i; j >= h && Double.compare(a[j], a[j - h]) < 0; j -= h) {
+                    double temp = a[j];
+                    a[j] = a[j - h];
+                    a[j - h] = temp;
+                }
+            }
+            h /= 3;
+        }
+    }
+
     public static void main(String[] args) {
         Double[] array = RandUtil.randDoubleArr(20);
 
@@ -0,0 +1,73 @@
+package algorithms;
+
+import util.OutUtil;
+
+/**
+ * Regular quicksort partitions the array into elements smaller and larger than the pivot. When there are a lot of
+ * duplicate keys, that wastes a lot of work: elements equal to the pivot keep getting partitioned over and over again,
+ * even though they are already in their final place relative to each other.
+ *
+ * Dijkstra's 3-way partitioning (the "Dutch national flag" problem) splits the array into three parts instead:
+ *
+ * [ less than v | equal to v | greater than v ]
+ *
+ * We keep three pointers: everything left of lt is less than v, everything between lt and i is equal to v, and
+ * everything right of gt is greater than v. The elements between i and gt haven't been looked at yet. Once i passes gt,
+ * the middle part is done, and only the left and right parts need to be sorted. An array with only a few distinct keys
+ * is sorted in linear time.
+ *
+ * The array is shuffled with {@link KnuthShuffle} first, so that no particular input can make the pivots bad every
+ * time. Small subarrays are handed off to {@link InsertionSort}. The sort is not stable.
+ */
+public class ThreeWayQuickSort {
+    /**
+     * Subarrays smaller than this are sorted with insertion sort.
+     */
+    private static final int INSERTION_CUTOFF = 16;
+
+    public static void sort(Comparable[] a) {
+        KnuthShuffle.shuffle(a);
+        sort(a, 0, a.length - 1);
+    }
+
+    private static void sort(Comparable[] a, int lo, int hi) {
+        if(hi - lo < INSERTION_CUTOFF) {
+            InsertionSort.sort(a, lo, hi + 1);
+            return;
+        }
+
+        Comparable v = a[lo];
+        int lt = lo, gt = hi, i = lo + 1;
+        while(i <= gt) {
+            int cmp = a[i].compareTo(v);
+            if(cmp < 0) swap(a, lt++, i++); // smaller, move it to the left part
+            else if(cmp > 0) swap(a, i, gt--); // larger, move it to the right part. the element swapped in hasn't been looked at yet, so i stays.
+            else i++; // equal, leave it in the middle
+        }
+
+        // a[lt..gt] is now equal to v, and already in place
+        sort(a, lo, lt - 1);
+        sort(a, gt + 1, hi);
+    }
+
+    private static void swap(Comparable[] a, int i, int j) {
+        Comparable temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    public static void main(String[] args) {
+        Integer[] array = new Integer[50];
+        for(int i = 0; i < array.length; i++) {
+            array[i] = (int) (Math.random() * 4); // lots of duplicates
+        }
+
+        System.out.println("Before sort");
+        OutUtil.arrayPrint(array);
+
+        ThreeWayQuickSort.sort(array);
+
+        System.out.println("After sort");
+        OutUtil.arrayPrint(array);
+    }
+}
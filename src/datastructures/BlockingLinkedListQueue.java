@@ -0,0 +1,292 @@
+package datastructures;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A queue that makes threads wait instead of returning null. {@link LinkedListQueue#dequeue()} returns null when the
+ * queue is empty, so a consumer that wants the next element has to call it over and over until something arrives, which
+ * keeps a core busy doing nothing. Here, take() puts the consumer to sleep until an element is added, and put() on a
+ * full queue puts the producer to sleep until there is room.
+ *
+ * The elements are stored in a regular LinkedListQueue, guarded by a lock. The sleeping is done with two conditions
+ * of that lock: consumers wait on notEmpty and producers wait on notFull, and every put or take wakes up one thread
+ * waiting on the other condition.
+ *
+ * A ReentrantLock is used instead of synchronized and wait()/notify() on purpose. A virtual thread that blocks inside
+ * a synchronized block stays pinned to its carrier (the platform thread running it), so a few thousand blocked
+ * consumers could use up all the carriers. A virtual thread waiting on a ReentrantLock condition is parked and unmounted
+ * instead, so the carrier can run other virtual threads in the meantime.
+ *
+ * Null can't be added, since poll returns null when no element arrived in time.
+ */
+public class BlockingLinkedListQueue<T> implements Iterable<T> {
+    private final LinkedListQueue<T> items = new LinkedListQueue<>();
+    private final int capacity;
+    private int size;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Creates a queue without a capacity bound, so put never waits.
+     */
+    public BlockingLinkedListQueue() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param capacity How many elements fit before put has to wait
+     */
+    public BlockingLinkedListQueue(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.capacity = capacity;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds an element, waiting for room if the queue is full.
+     */
+    public void put(T item) throws InterruptedException {
+        checkNotNull(item);
+
+        lock.lockInterruptibly();
+        try {
+            while(size == capacity) {
+                notFull.await();
+            }
+
+            enqueue(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an element if there is room, without waiting.
+     * @return false if the queue is full.
+     */
+    public boolean offer(T item) {
+        checkNotNull(item);
+
+        lock.lock();
+        try {
+            if(size == capacity) {
+                return false;
+            }
+
+            enqueue(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an element, waiting up to the given time for room if the queue is full.
+     * @return false if there was no room in time.
+     */
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        checkNotNull(item);
+        long nanos = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while(size == capacity) {
+                if(nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            enqueue(item);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an element, waiting for one if the queue is empty.
+     */
+    public T take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while(size == 0) {
+                notEmpty.await();
+            }
+
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an element if there is one, without waiting.
+     * @return the element, or null if the queue is empty.
+     */
+    public T poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an element, waiting up to the given time for one if the queue is empty.
+     * @return the element, or null if none arrived in time.
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while(size == 0) {
+                if(nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Must be called with the lock held, and with room in the queue.
+     */
+    private void enqueue(T item) {
+        items.enqueue(item);
+        size++;
+        notEmpty.signal();
+    }
+
+    /**
+     * Must be called with the lock held, and with at least one element in the queue.
+     */
+    private T dequeue() {
+        T item = items.dequeue();
+        size--;
+        notFull.signal();
+        return item;
+    }
+
+    private static void checkNotNull(Object item) {
+        if(item == null) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Iterates over a copy of the queue taken when the iterator is created, so it never sees concurrent changes.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        lock.lock();
+        try {
+            List<T> copy = new ArrayList<>(size);
+            for(T item : items) {
+                copy.add(item);
+            }
+            return copy.iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task. Virtual threads are only available from
+     * Java 21 on, and this code is built for older versions too, so the method is looked up by reflection.
+     * @return the executor, or null if virtual threads aren't available.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch(ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A demo and a small benchmark: a crowd of producer threads and consumer threads sharing one bounded queue, so
+     * that most of them spend most of their time blocked. With virtual threads, 100,000 of each run fine on a handful of
+     * carrier threads. Without them (before Java 21), the demo falls back to platform threads, and uses far fewer of
+     * them, since every platform thread has its own stack.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        ExecutorService executor = newVirtualThreadExecutor();
+        int threads = 100000;
+        if(executor == null) {
+            System.out.println("Virtual threads are not available, using platform threads");
+            executor = Executors.newCachedThreadPool();
+            threads = 1000;
+        }
+
+        int perThread = 100;
+        BlockingLinkedListQueue<Integer> queue = new BlockingLinkedListQueue<>(1024);
+        AtomicLong sum = new AtomicLong();
+
+        long start = System.nanoTime();
+
+        for(int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    for(int i = 0; i < perThread; i++) {
+                        queue.put(i);
+                    }
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            executor.execute(() -> {
+                try {
+                    for(int i = 0; i < perThread; i++) {
+                        sum.addAndGet(queue.take());
+                    }
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+
+        long elapsed = System.nanoTime() - start;
+        long messages = (long) threads * perThread;
+        long expected = (long) threads * perThread * (perThread - 1) / 2;
+
+        System.out.printf("%d producers and %d consumers moved %d elements in %d ms (%.0f elements/s)%n",
+                threads, threads, messages, elapsed / 1000000, messages / (elapsed / 1e9));
+        System.out.println(sum.get() == expected && queue.isEmpty() ? "Every element arrived" : "FAILED");
+    }
+}
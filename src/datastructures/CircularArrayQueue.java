@@ -0,0 +1,212 @@
+package datastructures;
+
+import util.OutUtil;
+
+import java.util.Iterator;
+
+/**
+ * This is a queue (and a deque, since elements can be added and removed at both ends) implemented with an array instead
+ * of linked nodes. {@link LinkedListQueue} creates a new node for every element, which costs memory and time, and the
+ * nodes end up scattered all over memory. Here, the elements sit right next to each other in a single array.
+ *
+ * The trick is to treat the array as a circle. We keep the index of the first element (head) and the number of elements
+ * (size). Removing from the front just moves head forward, and adding to the back writes to head + size. When an index
+ * runs off the end of the array, it wraps around to the start. This way, no element ever has to be shifted.
+ *
+ * The capacity is always a power of two, so wrapping around is a cheap bitwise and with (capacity - 1) instead of a
+ * modulo.
+ *
+ * When the array is full, it is doubled, just like in {@link DynamicArrayStack}. Shrinking is optional: when enabled,
+ * the array is halved once it is only 1/4 full. A queue that is used as a buffer usually grows back to the same size
+ * again, so by default it keeps its capacity to avoid resizing over and over.
+ */
+public class CircularArrayQueue<T> implements Iterable<T> {
+    private static final int MIN_CAPACITY = 4;
+
+    private T[] array;
+    private int head; // index of the first element
+    private int size;
+    private final boolean shrink;
+
+    public CircularArrayQueue() {
+        this(MIN_CAPACITY, false);
+    }
+
+    /**
+     * @param initialCapacity How many elements fit before the first resize. Rounded up to a power of two.
+     * @param shrink Whether to halve the array once it is only 1/4 full
+     */
+    @SuppressWarnings("unchecked")
+    public CircularArrayQueue(int initialCapacity, boolean shrink) {
+        if(initialCapacity < 0 || initialCapacity > 1 << 30) {
+            throw new IllegalArgumentException();
+        }
+
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1);
+        this.array = (T[]) new Object[capacity];
+        this.shrink = shrink;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void enqueue(T item) {
+        addLast(item);
+    }
+
+    public T dequeue() {
+        return removeFirst();
+    }
+
+    public void addLast(T item) {
+        if(size == array.length) {
+            resize(array.length * 2);
+        }
+
+        array[(head + size) & (array.length - 1)] = item;
+        size++;
+    }
+
+    public void addFirst(T item) {
+        if(size == array.length) {
+            resize(array.length * 2);
+        }
+
+        head = (head - 1) & (array.length - 1);
+        array[head] = item;
+        size++;
+    }
+
+    public T removeFirst() {
+        if(size == 0) {
+            return null;
+        }
+
+        T item = array[head];
+        array[head] = null; // don't keep a reference to the removed element
+        head = (head + 1) & (array.length - 1);
+        size--;
+
+        shrinkIfNeeded();
+        return item;
+    }
+
+    public T removeLast() {
+        if(size == 0) {
+            return null;
+        }
+
+        int last = (head + size - 1) & (array.length - 1);
+        T item = array[last];
+        array[last] = null;
+        size--;
+
+        shrinkIfNeeded();
+        return item;
+    }
+
+    public T peekFirst() {
+        return size == 0 ? null : array[head];
+    }
+
+    public T peekLast() {
+        return size == 0 ? null : array[(head + size - 1) & (array.length - 1)];
+    }
+
+    private void shrinkIfNeeded() {
+        if(shrink && array.length > MIN_CAPACITY && size <= array.length / 4) {
+            resize(array.length / 2);
+        }
+    }
+
+    /**
+     * Copies the elements into a new array of the given capacity. The elements may wrap around the end of the old
+     * array, so they are copied in (at most) two pieces, and the first element ends up at index 0 of the new array.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        if(capacity < 0) {
+            throw new IllegalStateException("Queue is too large");
+        }
+
+        T[] newArray = (T[]) new Object[capacity];
+
+        int firstPart = Math.min(size, array.length - head);
+        System.arraycopy(array, head, newArray, 0, firstPart);
+        System.arraycopy(array, 0, newArray, firstPart, size - firstPart);
+
+        this.array = newArray;
+        this.head = 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new QueueIterator();
+    }
+
+    private class QueueIterator implements Iterator<T> {
+        private int i;
+
+        @Override
+        public boolean hasNext() {
+            return i < size;
+        }
+
+        @Override
+        public T next() {
+            return array[(head + i++) & (array.length - 1)];
+        }
+    }
+
+    public static void main(String[] args) {
+        CircularArrayQueue<Integer> queue = new CircularArrayQueue<>();
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+
+        for(int i = 0; i < 10; i++) {
+            System.out.println(queue.dequeue());
+        }
+
+        System.out.println();
+        System.out.println("Test iterator");
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+
+        OutUtil.iterablePrint(queue);
+
+        System.out.println();
+        System.out.println("Wrap around");
+
+        // remove a few from the front and add more to the back, so that the elements wrap around the end of the array
+        for(int i = 0; i < 5; i++) {
+            queue.dequeue();
+            queue.enqueue(10 + i);
+        }
+
+        OutUtil.iterablePrint(queue);
+
+        System.out.println();
+        System.out.println("Use as a deque");
+
+        queue.addFirst(-1);
+        queue.addLast(100);
+        System.out.println(queue.removeFirst());
+        System.out.println(queue.removeLast());
+
+        System.out.println();
+        System.out.println("Empty");
+        while(!queue.isEmpty()) {
+            queue.dequeue();
+        }
+        System.out.println(queue.dequeue());
+    }
+}
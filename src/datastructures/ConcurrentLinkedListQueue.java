@@ -0,0 +1,231 @@
+package datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is a thread-safe version of {@link LinkedListQueue}, which doesn't use any locks. It is the queue described by
+ * Michael and Scott ("Simple, Fast, and Practical Non-Blocking and Blocking Concurrent Queue Algorithms"), and it is
+ * also what java.util.concurrent.ConcurrentLinkedQueue is based on.
+ *
+ * Wrapping LinkedListQueue in synchronized works, but only one thread can touch the queue at a time, and every thread
+ * that wants to has to wait (and often be put to sleep and woken up again). Here, threads never wait for each other.
+ * Instead, every change is made with a single compare-and-set (CAS), which only succeeds if nobody changed the field in
+ * the meantime. A thread whose CAS fails just reads the new state and tries again.
+ *
+ * The nodes are the same as in LinkedListQueue, with two differences:
+ *
+ * 1. The list always starts with a dummy node. first points to the dummy, and the first real element is first.next.
+ * This way, first and last never have to be changed together, which couldn't be done with a single CAS.
+ *
+ * 2. Adding a node takes two steps: linking it to the last node (last.next = n), and then moving last forward. Between
+ * those two steps, last lags one node behind. Any thread that sees this can finish the second step itself ("helping"),
+ * so a thread that is paused between the two steps can never block the others.
+ *
+ * Null can't be added, since dequeue returns null when the queue is empty.
+ */
+public class ConcurrentLinkedListQueue<T> implements Iterable<T> {
+    private static final VarHandle FIRST;
+    private static final VarHandle LAST;
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FIRST = lookup.findVarHandle(ConcurrentLinkedListQueue.class, "first", Node.class);
+            LAST = lookup.findVarHandle(ConcurrentLinkedListQueue.class, "last", Node.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile Node<T> first;
+    private volatile Node<T> last;
+
+    /**
+     * The node is static (unlike in LinkedListQueue) so that the VarHandles above can refer to its class.
+     */
+    private static class Node<T> {
+        volatile T value;
+        volatile Node<T> next;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    public ConcurrentLinkedListQueue() {
+        first = last = new Node<>(null); // the dummy node
+    }
+
+    public boolean isEmpty() {
+        return first.next == null;
+    }
+
+    public void enqueue(T item) {
+        if(item == null) {
+            throw new IllegalArgumentException();
+        }
+
+        Node<T> n = new Node<>(item);
+
+        while(true) {
+            Node<T> tail = last;
+            Node<T> next = tail.next;
+
+            if(next == null) {
+                // tail really is the last node, so try to link the new node after it
+                if(NEXT.compareAndSet(tail, null, n)) {
+                    // move last forward. if this fails, another thread already did it for us.
+                    LAST.compareAndSet(this, tail, n);
+                    return;
+                }
+            } else {
+                // another thread linked a node but hasn't moved last yet, so help it and try again
+                LAST.compareAndSet(this, tail, next);
+            }
+        }
+    }
+
+    public T dequeue() {
+        while(true) {
+            Node<T> head = first;
+            Node<T> tail = last;
+            Node<T> next = head.next;
+
+            if(next == null) {
+                return null; // only the dummy node is left
+            }
+
+            if(head == tail) {
+                // there is an element, but last still points to the dummy. move it forward before removing anything,
+                // otherwise last could end up pointing at a node that is no longer in the list.
+                LAST.compareAndSet(this, tail, next);
+                continue;
+            }
+
+            T item = next.value;
+            if(FIRST.compareAndSet(this, head, next)) {
+                // next is the new dummy node. clear its value so that the queue doesn't keep the element alive.
+                next.value = null;
+                return item;
+            }
+        }
+    }
+
+    /**
+     * The iterator is weakly consistent: it never throws because of concurrent changes, and it returns the elements
+     * that were in the queue when it reached them, which may include elements added after it was created.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new QueueIterator();
+    }
+
+    private class QueueIterator implements Iterator<T> {
+        private Node<T> current = first;
+        private T nextItem;
+
+        QueueIterator() {
+            advance();
+        }
+
+        private void advance() {
+            nextItem = null;
+            while(nextItem == null && current != null) {
+                current = current.next;
+                if(current != null) {
+                    nextItem = current.value; // null if the node was dequeued in the meantime
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextItem != null;
+        }
+
+        @Override
+        public T next() {
+            if(nextItem == null) {
+                throw new NoSuchElementException();
+            }
+
+            T item = nextItem;
+            advance();
+            return item;
+        }
+    }
+
+    /**
+     * A stress test: several producers each add a sequence of numbers while several consumers remove them. Afterwards,
+     * every number must have been removed exactly once, and every consumer must have seen the numbers of each producer
+     * in the order they were added, since that is what a queue promises even when it is shared.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int producers = 4, consumers = 4, perProducer = 250000;
+        ConcurrentLinkedListQueue<Long> queue = new ConcurrentLinkedListQueue<>();
+
+        boolean[] seen = new boolean[producers * perProducer];
+        AtomicInteger removed = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        Thread[] threads = new Thread[producers + consumers];
+        for(int p = 0; p < producers; p++) {
+            long id = p;
+            threads[p] = new Thread(() -> {
+                for(long i = 0; i < perProducer; i++) {
+                    queue.enqueue(id << 32 | i);
+                }
+            });
+        }
+
+        for(int c = 0; c < consumers; c++) {
+            threads[producers + c] = new Thread(() -> {
+                long[] lastSeen = new long[producers];
+                Arrays.fill(lastSeen, -1);
+
+                while(removed.get() < producers * perProducer) {
+                    Long item = queue.dequeue();
+                    if(item == null) {
+                        continue;
+                    }
+                    removed.incrementAndGet();
+
+                    int producer = (int) (item >>> 32);
+                    int i = (int) (long) item;
+                    if(i <= lastSeen[producer]) {
+                        failed.set(true); // out of order
+                    }
+                    lastSeen[producer] = i;
+
+                    synchronized(seen) {
+                        int index = producer * perProducer + i;
+                        if(seen[index]) {
+                            failed.set(true); // removed twice
+                        }
+                        seen[index] = true;
+                    }
+                }
+            });
+        }
+
+        for(Thread thread : threads) thread.start();
+        for(Thread thread : threads) thread.join();
+
+        for(boolean s : seen) {
+            if(!s) {
+                failed.set(true); // never removed
+            }
+        }
+
+        System.out.println(failed.get() ? "FAILED" : "Every element was removed exactly once and in order");
+        System.out.println("Empty: " + queue.isEmpty());
+    }
+}
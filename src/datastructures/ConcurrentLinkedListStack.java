@@ -0,0 +1,257 @@
+package datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This is a thread-safe version of {@link LinkedListStack} that doesn't use locks (a Treiber stack), with an
+ * elimination array to keep it fast when many threads use it at once.
+ *
+ * The stack itself is the same chain of nodes as in LinkedListStack. The only shared field is first, so add and remove
+ * can each be done with a single compare-and-set (CAS) on it: read first, prepare the change, and CAS first from the
+ * value that was read to the new value. If another thread got there in between, the CAS fails and we try again.
+ *
+ * The problem is that every thread is fighting over that one field. With many threads, most CASes fail, and the cache
+ * line holding first bounces between cores all the time, so adding threads makes the stack slower instead of faster.
+ *
+ * The elimination array is based on a simple observation: if an add and a remove happen at the same time, the remove
+ * can just take the element from the add, and the stack doesn't have to be touched at all. The stack looks the same
+ * afterwards as if the add had happened right before the remove. So when a CAS on first fails, a thread goes to a
+ * random slot of the elimination array instead:
+ *
+ * - An add puts its node into an empty slot and waits a little. If a remove comes along, it swaps the node for a
+ * TAKEN marker and both are done. If nobody comes, the add takes its node back and tries the stack again.
+ * - A remove looks at a slot, and if there is a node waiting in it, tries to swap it for TAKEN.
+ *
+ * The more threads there are, the more collisions there are, and the more pairs cancel out in the array, spread over
+ * many different slots. Null can't be added, since remove returns null when the stack is empty.
+ */
+public class ConcurrentLinkedListStack<T> implements Iterable<T> {
+    private static final VarHandle FIRST;
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            FIRST = MethodHandles.lookup().findVarHandle(ConcurrentLinkedListStack.class, "first", Node.class);
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Put in a slot by a remove that took the node waiting there.
+     */
+    private static final Object TAKEN = new Object();
+
+    /**
+     * How many times an add checks its slot before taking the node back.
+     */
+    private static final int ELIMINATION_SPINS = 64;
+
+    private volatile Node<T> first;
+    private final Object[] elimination;
+
+    /**
+     * The node is static (unlike in LinkedListStack) so that the VarHandle above can refer to its class.
+     */
+    private static class Node<T> {
+        Node<T> next;
+        final T value;
+
+        Node(T value) {
+            this.value = value;
+        }
+    }
+
+    public ConcurrentLinkedListStack() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * @param eliminationSlots Size of the elimination array. 0 turns elimination off, which makes this a plain Treiber
+     *                         stack.
+     */
+    public ConcurrentLinkedListStack(int eliminationSlots) {
+        if(eliminationSlots < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.elimination = new Object[eliminationSlots];
+    }
+
+    public boolean isEmpty() {
+        return first == null;
+    }
+
+    public void add(T element) {
+        if(element == null) {
+            throw new IllegalArgumentException();
+        }
+
+        Node<T> n = new Node<>(element);
+
+        while(true) {
+            Node<T> head = first;
+            n.next = head;
+
+            if(FIRST.compareAndSet(this, head, n)) {
+                return;
+            }
+
+            // lost the race for first, try to meet a remove in the elimination array instead
+            if(elimination.length > 0 && eliminateAdd(n)) {
+                return;
+            }
+        }
+    }
+
+    public T remove() {
+        while(true) {
+            Node<T> head = first;
+            if(head == null) {
+                return null;
+            }
+
+            if(FIRST.compareAndSet(this, head, head.next)) {
+                return head.value;
+            }
+
+            if(elimination.length > 0) {
+                Node<T> n = eliminateRemove();
+                if(n != null) {
+                    return n.value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Offers the node to a concurrent remove.
+     * @return true if a remove took it.
+     */
+    private boolean eliminateAdd(Node<T> n) {
+        int slot = ThreadLocalRandom.current().nextInt(elimination.length);
+        if(!SLOT.compareAndSet(elimination, slot, null, n)) {
+            return false; // the slot is in use
+        }
+
+        for(int i = 0; i < ELIMINATION_SPINS; i++) {
+            if(SLOT.getAcquire(elimination, slot) == TAKEN) {
+                SLOT.setRelease(elimination, slot, null); // free the slot for the next pair
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+
+        // nobody came. take the node back, unless a remove takes it at the very last moment.
+        if(SLOT.compareAndSet(elimination, slot, n, null)) {
+            return false;
+        }
+
+        SLOT.setRelease(elimination, slot, null);
+        return true;
+    }
+
+    /**
+     * Looks for an add waiting in the elimination array.
+     * @return the node that was taken, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T> eliminateRemove() {
+        int slot = ThreadLocalRandom.current().nextInt(elimination.length);
+        Object waiting = SLOT.getAcquire(elimination, slot);
+
+        if(waiting instanceof Node && SLOT.compareAndSet(elimination, slot, waiting, TAKEN)) {
+            return (Node<T>) waiting;
+        }
+
+        return null;
+    }
+
+    /**
+     * The iterator goes through the stack as it was when the iterator was created. Since nodes are never changed once
+     * they are on the stack, later adds and removes don't affect it.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new StackIterator();
+    }
+
+    private class StackIterator implements Iterator<T> {
+        private Node<T> cur = first;
+
+        @Override
+        public boolean hasNext() {
+            return cur != null;
+        }
+
+        @Override
+        public T next() {
+            if(cur == null) {
+                throw new NoSuchElementException();
+            }
+
+            T val = cur.value;
+            cur = cur.next;
+
+            return val;
+        }
+    }
+
+    /**
+     * A stress test: several threads add numbers while several others remove them, and every number has to be removed
+     * exactly once.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int adders = 4, removers = 4, perAdder = 250000;
+        ConcurrentLinkedListStack<Integer> stack = new ConcurrentLinkedListStack<>(4);
+
+        AtomicInteger[] seen = new AtomicInteger[adders * perAdder];
+        for(int i = 0; i < seen.length; i++) {
+            seen[i] = new AtomicInteger();
+        }
+        AtomicInteger removed = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+
+        Thread[] threads = new Thread[adders + removers];
+        for(int a = 0; a < adders; a++) {
+            int offset = a * perAdder;
+            threads[a] = new Thread(() -> {
+                for(int i = 0; i < perAdder; i++) {
+                    stack.add(offset + i);
+                }
+            });
+        }
+
+        for(int r = 0; r < removers; r++) {
+            threads[adders + r] = new Thread(() -> {
+                while(removed.get() < seen.length) {
+                    Integer item = stack.remove();
+                    if(item != null) {
+                        removed.incrementAndGet();
+                        if(seen[item].incrementAndGet() != 1) {
+                            failed.set(true); // removed twice
+                        }
+                    }
+                }
+            });
+        }
+
+        for(Thread thread : threads) thread.start();
+        for(Thread thread : threads) thread.join();
+
+        for(AtomicInteger count : seen) {
+            if(count.get() != 1) {
+                failed.set(true);
+            }
+        }
+
+        System.out.println(failed.get() ? "FAILED" : "Every element was removed exactly once");
+        System.out.println("Empty: " + stack.isEmpty());
+    }
+}
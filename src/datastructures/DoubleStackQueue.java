@@ -35,10 +35,25 @@ import java.util.Iterator;
  * Now we have stack s2 in the correct order for removal in order to correctly implement a queue.
  *
  * We will use the LinkedListStack created in the other class.
+ *
+ * The elements are moved from s1 to s2 by relinking their nodes, so moving doesn't create any new nodes. Optionally,
+ * the queue can also recycle the nodes it removes (see {@link LinkedListStack}). Nodes are removed from s2 but needed
+ * by s1, so removed nodes go into the free list of s1.
  */
 public class DoubleStackQueue<T> implements Iterable<T> {
-    private LinkedListStack<T> s1 = new LinkedListStack<>();
-    private LinkedListStack<T> s2 = new LinkedListStack<>();
+    private final LinkedListStack<T> s1;
+    private final LinkedListStack<T> s2 = new LinkedListStack<>();
+
+    public DoubleStackQueue() {
+        this(0);
+    }
+
+    /**
+     * @param poolSize How many removed nodes to keep for reuse. 0 turns recycling off.
+     */
+    public DoubleStackQueue(int poolSize) {
+        this.s1 = new LinkedListStack<>(poolSize);
+    }
 
     public boolean isEmpty() {
         return s1.isEmpty() && s2.isEmpty();
@@ -55,11 +70,11 @@ public class DoubleStackQueue<T> implements Iterable<T> {
             }
 
             while(!s1.isEmpty()) {
-                s2.add(s1.remove());
+                s1.moveTopTo(s2);
             }
         }
 
-        return s2.remove();
+        return s2.remove(s1);
     }
 
     @Override
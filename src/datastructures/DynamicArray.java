@@ -2,6 +2,8 @@ package datastructures;
 
 import util.OutUtil;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 
 /**
@@ -17,28 +19,101 @@ import java.util.Iterator;
  * We do this at 1/4th capacity because if we were to do it at 1/2 capacity, in a scenario where elements are added and
  * removed on a full array, the array would keep being grown and shrunk over and over again, leading to massive
  * inefficiency.
+ *
+ * Adding many elements one at a time still resizes (and copies everything) about log n times on the way. When the
+ * number of elements is known in advance, addAll and ensureCapacity grow the array once, to the final size. All the
+ * shifting and copying is done with System.arraycopy, which moves a whole block of memory at once.
  */
 public class DynamicArray<T> implements Iterable<T> {
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * Some VMs can't allocate an array of exactly Integer.MAX_VALUE elements, so the capacity stops a little below it.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
     T[] arr;
     int nextpos; // This will represent the next possible index an element can be inserted. It also acts as the size of elements currently in the array.
 
-    @SuppressWarnings("unchecked")
     public DynamicArray() {
-        arr = (T[]) new Object[4]; // it is impossible to create a generic array in Java
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity How many elements fit before the first resize
+     */
+    @SuppressWarnings("unchecked")
+    public DynamicArray(int initialCapacity) {
+        if(initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException();
+        }
+
+        arr = (T[]) new Object[initialCapacity]; // it is impossible to create a generic array in Java
     }
 
     public void add(T element) {
-        if(arr.length >= nextpos) {
+        if(nextpos == arr.length) {
             // array must be resized!
-            resize(arr.length * 2);
+            grow(nextpos + 1);
         }
 
         arr[nextpos] = element;
         nextpos++;
     }
 
+    /**
+     * Adds all the elements of the given array at the end. The array is grown (at most) once, and the elements are
+     * copied in one go.
+     */
+    public void addAll(T[] elements) {
+        ensureRoom(elements.length);
+
+        System.arraycopy(elements, 0, arr, nextpos, elements.length);
+        nextpos += elements.length;
+    }
+
+    /**
+     * Adds all the elements of the given Iterable at the end. If the number of elements is known up front (for a
+     * DynamicArray or a Collection), the array is grown (at most) once. Otherwise, they are added one by one.
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(Iterable<? extends T> elements) {
+        if(elements instanceof DynamicArray) {
+            DynamicArray<? extends T> other = (DynamicArray<? extends T>) elements;
+            int count = other.nextpos; // read before growing, in case other is this array
+
+            ensureRoom(count);
+            System.arraycopy(other.arr, 0, arr, nextpos, count);
+            nextpos += count;
+        } else if(elements instanceof Collection) {
+            addAll((T[]) ((Collection<? extends T>) elements).toArray());
+        } else {
+            for(T element : elements) {
+                add(element);
+            }
+        }
+    }
+
+    /**
+     * Inserts an element at the given index, and shifts the element at that index and all the ones after it forward.
+     * @param i Index from 0 to size() (which adds the element at the end)
+     */
+    public void insert(int i, T element) {
+        if(i < 0 || i > nextpos) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if(nextpos == arr.length) {
+            grow(nextpos + 1);
+        }
+
+        System.arraycopy(arr, i, arr, i + 1, nextpos - i);
+        arr[i] = element;
+        nextpos++;
+    }
+
     public T get(int i) {
-        if(i >= nextpos) {
+        if(i < 0 || i >= nextpos) {
             throw new IndexOutOfBoundsException();
         }
 
@@ -50,38 +125,103 @@ public class DynamicArray<T> implements Iterable<T> {
             throw new IndexOutOfBoundsException();
         }
 
-        nextpos--;
-        arr[i] = null; // this is important, as retaining a reference could lead to unforeseen memory issues
-
         // now elements are shifted back one.
-        for(int j = i + 1; j < arr.length; j++) {
-            arr[j - 1] = arr[j];
-        }
+        System.arraycopy(arr, i + 1, arr, i, nextpos - i - 1);
+
+        nextpos--;
+        arr[nextpos] = null; // this is important, as retaining a reference could lead to unforeseen memory issues
 
         // if element size is less than/equal to 1/4 capacity
-        if(nextpos == arr.length / 4) {
+        if(nextpos <= arr.length / 4) {
             resize(arr.length / 2);
         }
     }
 
+    /**
+     * Removes the elements from index from (inclusive) to index to (exclusive), and shifts the elements after them back,
+     * all in one go. The array is shrunk the same way as by remove, but with a single resize.
+     */
+    public void removeRange(int from, int to) {
+        if(from < 0 || to > nextpos || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        System.arraycopy(arr, to, arr, from, nextpos - to);
+
+        int newSize = nextpos - (to - from);
+        Arrays.fill(arr, newSize, nextpos, null);
+        nextpos = newSize;
+
+        // halve the capacity as many times as remove would have
+        int cap = arr.length;
+        while(cap / 2 >= MIN_CAPACITY && nextpos <= cap / 4) {
+            cap /= 2;
+        }
+        if(cap != arr.length) {
+            resize(cap);
+        }
+    }
+
     public int size() {
         return nextpos;
     }
 
-    @SuppressWarnings("unchecked")
-    private void resize(int cap) {
-        if(cap < 4) {
-            return;
+    /**
+     * Makes sure that the given number of elements fit without another resize. Calling this before adding a known
+     * number of elements one by one saves the resizes (and copies) in between.
+     */
+    public void ensureCapacity(int capacity) {
+        if(capacity > arr.length) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Shrinks the capacity to the number of elements, so no memory is wasted on empty slots.
+     */
+    public void trimToSize() {
+        if(nextpos < arr.length) {
+            arr = Arrays.copyOf(arr, nextpos);
         }
+    }
 
-        T[] newArr = (T[]) new Object[cap];
+    /**
+     * Returns a copy of the elements, in a new array of exactly the right size.
+     */
+    public Object[] toArray() {
+        return Arrays.copyOf(arr, nextpos, Object[].class);
+    }
 
-        // here, we have the conditions i < newArr.length AND i < arr.length. This is so that the resize method can be used for shrinking as well as growing, in which case the size of the target array will be less than the size of the source.
-        for(int i = 0; i < newArr.length && i < arr.length; i++) {
-            newArr[i] = arr[i];
+    /**
+     * Makes sure that the given number of elements can be added without another resize.
+     */
+    private void ensureRoom(int count) {
+        if(count > arr.length - nextpos) {
+            grow(nextpos + count); // negative if it overflows, which grow reports
         }
+    }
 
-        this.arr = newArr;
+    /**
+     * Grows to at least the given capacity. The capacity is doubled if that is enough, so that adding one element at a
+     * time still takes amortized constant time.
+     */
+    private void grow(int minCapacity) {
+        if(minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Array is too large");
+        }
+
+        long doubled = Math.max((long) arr.length * 2, MIN_CAPACITY);
+        resize((int) Math.max(minCapacity, Math.min(doubled, MAX_CAPACITY)));
+    }
+
+    private void resize(int cap) {
+        if(cap < MIN_CAPACITY) {
+            return;
+        }
+
+        // Arrays.copyOf copies min(cap, arr.length) elements, so this works for shrinking as well as growing. It uses
+        // System.arraycopy, which copies the whole block at once instead of one element at a time.
+        this.arr = Arrays.copyOf(arr, cap);
     }
 
     @Override
@@ -159,5 +299,18 @@ public class DynamicArray<T> implements Iterable<T> {
         for(int i = 0; i < dynamicArray.size(); i++) {
             System.out.println(dynamicArray.get(i));
         }
+
+        System.out.println();
+        System.out.println("Bulk operations");
+
+        dynamicArray.addAll(new Integer[] {5, 6, 7, 8, 9});
+        dynamicArray.insert(0, -1);
+        OutUtil.iterablePrint(dynamicArray);
+
+        dynamicArray.removeRange(1, 6);
+        OutUtil.iterablePrint(dynamicArray);
+
+        dynamicArray.trimToSize();
+        OutUtil.arrayPrint(dynamicArray.toArray());
     }
 }
@@ -0,0 +1,264 @@
+package datastructures;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * HyperLogLog estimates how many distinct values a stream contains, in a few kilobytes of memory, no matter how long
+ * the stream is. Counting them exactly (like {@link algorithms.BothContains} does for the values two arrays share)
+ * needs all of the values in memory at once.
+ *
+ * Every value is hashed to 64 random-looking bits. The first p bits pick one of m = 2^p registers, and the register
+ * remembers the largest number of leading zeros (plus one) seen in the rest of the bits of any hash that landed in it.
+ * A hash starts with k zeros with probability 1/2^k, so a register that has seen a run of k zeros has probably seen
+ * around 2^k distinct values. Adding the same value again changes nothing, since it has the same hash.
+ *
+ * A single register is a very rough guess, so the estimate combines all m of them (with a harmonic mean, which isn't
+ * thrown off much by a few registers that got lucky). The standard error is about 1.04 / sqrt(m): with p = 14, the
+ * registers take 16 KB, and the estimate is within 0.8% of the real count about two times out of three, and within
+ * 2.5% almost always.
+ *
+ * The original HyperLogLog estimate is biased for small counts, where many registers are still 0, and the usual fix of
+ * switching to linear counting (estimating from the number of empty registers) below some count leaves a bump of a few
+ * percent right after the switch. This uses Ertl's improved estimator instead ("New cardinality estimation algorithms
+ * for HyperLogLog sketches", 2017), which folds the empty registers into the harmonic mean in a way that keeps it
+ * unbiased for every count, from 0 up, with no switch and no tables of corrections.
+ *
+ * Two sketches with the same precision can be merged, by taking the larger value of every register. The result is
+ * exactly the sketch of both streams together. So every thread (or every machine) can fill a sketch of its own, and the
+ * sketches are merged at the end, without any locking. This class itself is not thread-safe.
+ *
+ * The size of the intersection of two streams can't be read from the registers directly. It is estimated with
+ * inclusion-exclusion, |A and B| = |A| + |B| - |A or B|. The error of that is the error of the three estimates, which is
+ * relative to the size of the union, not the intersection. So a small overlap of two large sets can't be estimated
+ * well this way. {@link MinHash} does better there.
+ *
+ * toBytes and fromBytes turn a sketch into bytes and back, to store it or send it somewhere else to be merged.
+ */
+public class HyperLogLog {
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * @param precision The number of hash bits that pick a register. The sketch has 2^precision registers of one byte.
+     */
+    public HyperLogLog(int precision) {
+        if(precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException();
+        }
+
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * The standard error of the estimate, relative to the real count.
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public void add(int value) {
+        add((long) value);
+    }
+
+    public void add(long value) {
+        long hash = hash(value);
+
+        int index = (int) (hash >>> (64 - precision));
+        // the or'ed bit stops the count of leading zeros at 64 - precision, so it always fits in the register
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+
+        if(rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * @return the estimated number of distinct values added so far.
+     */
+    public long estimate() {
+        int m = registers.length;
+        int q = 64 - precision; // the largest register value is q + 1
+
+        // how many registers hold each value
+        int[] counts = new int[q + 2];
+        for(byte register : registers) {
+            counts[register]++;
+        }
+
+        // Ertl's estimator: the harmonic mean, with the registers that are still 0 (sigma) and the ones that are full
+        // (tau) replaced by what they would most likely hold if they weren't cut off.
+        double z = m * tau(1 - (double) counts[q + 1] / m);
+        for(int k = q; k >= 1; k--) {
+            z = 0.5 * (z + counts[k]);
+        }
+        z += m * sigma((double) counts[0] / m);
+
+        return Math.round(m / (2 * Math.log(2)) * m / z);
+    }
+
+    /**
+     * Adds all the values of other to this sketch.
+     */
+    public void merge(HyperLogLog other) {
+        checkCompatible(other);
+
+        for(int i = 0; i < registers.length; i++) {
+            if(other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return a new sketch of the values of both sketches. Neither sketch is changed.
+     */
+    public HyperLogLog union(HyperLogLog other) {
+        HyperLogLog union = copy();
+        union.merge(other);
+        return union;
+    }
+
+    /**
+     * @return the estimated number of distinct values that were added to both sketches, by inclusion-exclusion.
+     */
+    public long intersection(HyperLogLog other) {
+        long intersection = estimate() + other.estimate() - union(other).estimate();
+        return Math.max(0, intersection);
+    }
+
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    /**
+     * @return the precision (1 byte), followed by the registers (1 byte each).
+     */
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(1 + registers.length).put((byte) precision).put(registers).array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if(bytes.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        HyperLogLog sketch = new HyperLogLog(buffer.get());
+        if(buffer.remaining() != sketch.registers.length) {
+            throw new IllegalArgumentException();
+        }
+        buffer.get(sketch.registers);
+
+        for(byte register : sketch.registers) {
+            if(register < 0 || register > 64 - sketch.precision + 1) {
+                throw new IllegalArgumentException();
+            }
+        }
+
+        return sketch;
+    }
+
+    private void checkCompatible(HyperLogLog other) {
+        if(other.precision != precision) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static double sigma(double x) {
+        if(x == 1) {
+            return Double.POSITIVE_INFINITY; // an empty sketch, the estimate is 0
+        }
+
+        double y = 1, z = x, previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while(z != previous);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if(x == 0 || x == 1) {
+            return 0;
+        }
+
+        double y = 1, z = 1 - x, previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while(z != previous);
+        return z / 3;
+    }
+
+    /**
+     * The finalizer of MurmurHash3. It spreads every bit of the value over all bits of the hash, so consecutive ids get
+     * hashes that look unrelated.
+     */
+    private static long hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random();
+
+        // two streams of ids from 0 to 3,000,000, which share the ids from 1,000,000 to 2,000,000
+        HyperLogLog a = new HyperLogLog(14);
+        HyperLogLog b = new HyperLogLog(14);
+        for(int i = 0; i < 2000000; i++) {
+            a.add(i);
+            b.add(i + 1000000);
+            a.add(random.nextInt(2000000)); // duplicates don't count
+        }
+
+        System.out.printf("Registers: %d bytes, standard error %.2f%%%n", a.toBytes().length, a.relativeError() * 100);
+        System.out.println("|A| ~ " + a.estimate() + " (2000000)");
+        System.out.println("|B| ~ " + b.estimate() + " (2000000)");
+        System.out.println("|A or B| ~ " + a.union(b).estimate() + " (3000000)");
+        System.out.println("|A and B| ~ " + a.intersection(b) + " (1000000)");
+
+        // four threads fill a sketch each, which are merged at the end
+        HyperLogLog[] shards = new HyperLogLog[4];
+        Thread[] threads = new Thread[shards.length];
+        for(int t = 0; t < shards.length; t++) {
+            HyperLogLog shard = shards[t] = new HyperLogLog(14);
+            int start = t * 250000;
+            threads[t] = new Thread(() -> {
+                for(long id = start; id < start + 500000; id++) { // each overlaps the next one by half
+                    shard.add(id);
+                }
+            });
+            threads[t].start();
+        }
+
+        HyperLogLog merged = new HyperLogLog(14);
+        for(int t = 0; t < shards.length; t++) {
+            try {
+                threads[t].join();
+            } catch(InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            merged.merge(HyperLogLog.fromBytes(shards[t].toBytes()));
+        }
+        System.out.println("Merged from 4 threads ~ " + merged.estimate() + " (1250000)");
+    }
+}
@@ -0,0 +1,145 @@
+package datastructures;
+
+import util.OutUtil;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * This is a version of {@link DynamicArray} for ints. DynamicArray&lt;Integer&gt; stores a reference to an Integer object
+ * for every element, so every element costs the 16 bytes of the object on top of the reference to it, and reading one
+ * means following a pointer to somewhere else in memory. Here, the ints are stored in an int[] directly, at 4 bytes
+ * each, right next to each other.
+ *
+ * It grows and shrinks the same way DynamicArray does: the capacity is doubled when the array is full, and halved when
+ * it is only 1/4 full.
+ *
+ * The iterator is a PrimitiveIterator.OfInt, whose nextInt() returns an int instead of an Integer, and stream()
+ * returns an IntStream, so the elements can be gone through without boxing any of them.
+ */
+public class IntDynamicArray implements Iterable<Integer> {
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * Some VMs can't allocate an array of exactly Integer.MAX_VALUE elements, so the capacity stops a little below it.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private int[] arr = new int[MIN_CAPACITY];
+    private int nextpos; // the next index an element can be inserted at, which is also the number of elements
+
+    public void add(int element) {
+        if(nextpos == arr.length) {
+            if(arr.length == MAX_CAPACITY) {
+                throw new IllegalStateException("Array is too large");
+            }
+
+            // double the capacity, but don't overflow for arrays of more than a billion elements
+            resize((int) Math.min((long) arr.length * 2, MAX_CAPACITY));
+        }
+
+        arr[nextpos++] = element;
+    }
+
+    public int get(int i) {
+        if(i < 0 || i >= nextpos) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return arr[i];
+    }
+
+    public void remove(int i) {
+        if(i < 0 || i >= nextpos) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // shift the elements after i back by one
+        System.arraycopy(arr, i + 1, arr, i, nextpos - i - 1);
+        nextpos--;
+
+        if(nextpos <= arr.length / 4) {
+            resize(arr.length / 2);
+        }
+    }
+
+    public int size() {
+        return nextpos;
+    }
+
+    private void resize(int cap) {
+        if(cap < MIN_CAPACITY) {
+            return;
+        }
+
+        arr = Arrays.copyOf(arr, cap);
+    }
+
+    /**
+     * Returns a stream of the elements. The stream reads the array directly, so the array must not be changed until the
+     * stream is done.
+     */
+    public IntStream stream() {
+        return Arrays.stream(arr, 0, nextpos);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements PrimitiveIterator.OfInt {
+        private int i;
+
+        @Override
+        public boolean hasNext() {
+            return i < nextpos;
+        }
+
+        @Override
+        public int nextInt() {
+            if(i >= nextpos) {
+                throw new NoSuchElementException();
+            }
+
+            return arr[i++];
+        }
+    }
+
+    public static void main(String[] args) {
+        IntDynamicArray dynamicArray = new IntDynamicArray();
+
+        for(int i = 0; i < 10; i++) {
+            dynamicArray.add(i * i);
+        }
+
+        OutUtil.iterablePrint(dynamicArray);
+
+        // going through the elements without boxing them
+        PrimitiveIterator.OfInt it = dynamicArray.iterator();
+        int sum = 0;
+        while(it.hasNext()) {
+            sum += it.nextInt();
+        }
+        System.out.println("Sum: " + sum);
+        System.out.println("Sum of the stream: " + dynamicArray.stream().sum());
+
+        System.out.println();
+
+        // removing shifts the elements after it back
+        dynamicArray.remove(0);
+        dynamicArray.remove(3);
+        OutUtil.iterablePrint(dynamicArray);
+        System.out.printf("Size of array: %d%n", dynamicArray.size());
+
+        // removing element at invalid index
+        try {
+            System.out.println("Removing at invalid index!");
+            dynamicArray.remove(dynamicArray.size());
+        } catch(RuntimeException e) {
+            e.printStackTrace(System.out);
+        }
+    }
+}
@@ -12,18 +12,48 @@ import java.util.Random;
  * new node. Therefore, a reference to the last node will always be kept.
  *
  * To remove a node, we can simply take it from the front, and set the front node to the previous front node's pointer.
+ *
+ * Like {@link LinkedListStack}, the queue can recycle its nodes: when it is created with a pool size, removed nodes are
+ * kept in a free list (at most pool size of them) and reused by enqueue, so a queue whose size stays about the same
+ * stops allocating. The queue must not be changed while an iterator is going through it in that case.
  */
 public class LinkedListQueue<T> implements Iterable<T> {
     private Node first;
     private Node last;
 
+    private Node free; // the first recycled node
+    private int freeCount;
+    private final int poolSize;
+
     private class Node {
         T value;
         Node next;
     }
 
+    public LinkedListQueue() {
+        this(0);
+    }
+
+    /**
+     * @param poolSize How many removed nodes to keep for reuse. 0 turns recycling off.
+     */
+    public LinkedListQueue(int poolSize) {
+        if(poolSize < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.poolSize = poolSize;
+    }
+
     public void enqueue(T item) {
-        Node n = new Node();
+        Node n = free;
+        if(n != null) {
+            free = n.next;
+            freeCount--;
+            n.next = null;
+        } else {
+            n = new Node();
+        }
         n.value = item;
 
         if(last == null) {
@@ -40,14 +70,22 @@ public class LinkedListQueue<T> implements Iterable<T> {
             return null;
         }
 
-        T item = first.value;
-        first = first.next;
+        Node n = first;
+        T item = n.value;
+        first = n.next;
 
         // if all of the elements have been removed, the last element should be removed as well
         if(first == null) {
             last = null;
         }
 
+        if(freeCount < poolSize) {
+            n.value = null; // don't keep the element alive
+            n.next = free;
+            free = n;
+            freeCount++;
+        }
+
         return item;
     }
 
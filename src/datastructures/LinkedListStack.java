@@ -18,16 +18,49 @@ import java.util.Iterator;
  * Every operation on this stack runs in constant time in the worst case. The deficit to this implementation would be that using a new object
  * for each element in the list creates both time overhead and memory overhead. Compared to an array implementation, this stack have consistent
  * times to add and remove elements, however the time may not be as low.
+ *
+ * Part of that overhead can be avoided by recycling nodes. When a stack is created with a pool size, removed nodes are
+ * kept in a free list (another chain of nodes, linked the same way) instead of being thrown away, and add takes a node
+ * from there before creating a new one. A stack that keeps growing and shrinking around the same size then stops
+ * allocating altogether, which means less work for the garbage collector. The free list holds at most pool size nodes,
+ * so a stack that was big once doesn't keep all of its old nodes forever. Since a recycled node is reused right away,
+ * the stack must not be changed while an iterator is going through it.
  */
 public class LinkedListStack<T> implements Iterable<T> {
-    private Node first;
+    private Node<T> first;
+
+    private Node<T> free; // the first recycled node
+    private int freeCount;
+    private final int poolSize;
+
+    public LinkedListStack() {
+        this(0);
+    }
+
+    /**
+     * @param poolSize How many removed nodes to keep for reuse. 0 turns recycling off.
+     */
+    public LinkedListStack(int poolSize) {
+        if(poolSize < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.poolSize = poolSize;
+    }
 
     public boolean isEmpty() {
         return first == null;
     }
 
     public void add(T element) {
-        Node n = new Node();
+        Node<T> n = free;
+        if(n != null) {
+            free = n.next;
+            freeCount--;
+        } else {
+            n = new Node<>();
+        }
+
         n.next = first;
         n.value = element;
 
@@ -35,26 +68,58 @@ public class LinkedListStack<T> implements Iterable<T> {
     }
 
     public T remove() {
-        if(this.first == null) {
+        return remove(this);
+    }
+
+    /**
+     * Removes the top element, and recycles its node into the free list of the given stack (which may be this one).
+     * {@link DoubleStackQueue} adds to one stack and removes from the other, so this lets it give the nodes back to
+     * the stack that needs them.
+     */
+    T remove(LinkedListStack<T> recycler) {
+        Node<T> n = first;
+        if(n == null) {
             return null;
         }
 
-        T val = first.value;
-        this.first = first.next;
+        T val = n.value;
+        this.first = n.next;
+
+        if(recycler.freeCount < recycler.poolSize) {
+            n.value = null; // don't keep the element alive
+            n.next = recycler.free;
+            recycler.free = n;
+            recycler.freeCount++;
+        }
 
         return val;
     }
 
+    /**
+     * Moves the top node onto the given stack, without creating a new node. Does nothing if this stack is empty.
+     */
+    void moveTopTo(LinkedListStack<T> other) {
+        Node<T> n = first;
+        if(n == null) {
+            return;
+        }
+
+        this.first = n.next;
+        n.next = other.first;
+        other.first = n;
+    }
+
     @Override
     public Iterator<T> iterator() {
         return new StackIterator();
     }
 
     /**
-     * A node class that represents a single "link" in the linked list.
+     * A node class that represents a single "link" in the linked list. It is static, so that it doesn't hold a
+     * reference to the stack it was created by, and can be moved to another stack.
      */
-    private class Node {
-        Node next;
+    private static class Node<T> {
+        Node<T> next;
         T value;
     }
 
@@ -62,7 +127,7 @@ public class LinkedListStack<T> implements Iterable<T> {
      * The iterator returned by the iterator() method
      */
     private class StackIterator implements Iterator<T> {
-        private Node cur = first;
+        private Node<T> cur = first;
 
         @Override
         public boolean hasNext() {
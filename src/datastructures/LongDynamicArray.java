@@ -0,0 +1,145 @@
+package datastructures;
+
+import util.OutUtil;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+/**
+ * This is a version of {@link DynamicArray} for longs. DynamicArray&lt;Long&gt; stores a reference to a Long object for
+ * every element, so every element costs the 16 bytes of the object on top of the reference to it, and reading one
+ * means following a pointer to somewhere else in memory. Here, the longs are stored in a long[] directly, at 8 bytes
+ * each, right next to each other. See {@link IntDynamicArray} for ints.
+ *
+ * It grows and shrinks the same way DynamicArray does: the capacity is doubled when the array is full, and halved when
+ * it is only 1/4 full.
+ *
+ * The iterator is a PrimitiveIterator.OfLong, whose nextLong() returns a long instead of a Long, and stream()
+ * returns a LongStream, so the elements can be gone through without boxing any of them.
+ */
+public class LongDynamicArray implements Iterable<Long> {
+    private static final int MIN_CAPACITY = 4;
+
+    /**
+     * Some VMs can't allocate an array of exactly Integer.MAX_VALUE elements, so the capacity stops a little below it.
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private long[] arr = new long[MIN_CAPACITY];
+    private int nextpos; // the next index an element can be inserted at, which is also the number of elements
+
+    public void add(long element) {
+        if(nextpos == arr.length) {
+            if(arr.length == MAX_CAPACITY) {
+                throw new IllegalStateException("Array is too large");
+            }
+
+            // double the capacity, but don't overflow for arrays of more than a billion elements
+            resize((int) Math.min((long) arr.length * 2, MAX_CAPACITY));
+        }
+
+        arr[nextpos++] = element;
+    }
+
+    public long get(int i) {
+        if(i < 0 || i >= nextpos) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return arr[i];
+    }
+
+    public void remove(int i) {
+        if(i < 0 || i >= nextpos) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        // shift the elements after i back by one
+        System.arraycopy(arr, i + 1, arr, i, nextpos - i - 1);
+        nextpos--;
+
+        if(nextpos <= arr.length / 4) {
+            resize(arr.length / 2);
+        }
+    }
+
+    public int size() {
+        return nextpos;
+    }
+
+    private void resize(int cap) {
+        if(cap < MIN_CAPACITY) {
+            return;
+        }
+
+        arr = Arrays.copyOf(arr, cap);
+    }
+
+    /**
+     * Returns a stream of the elements. The stream reads the array directly, so the array must not be changed until the
+     * stream is done.
+     */
+    public LongStream stream() {
+        return Arrays.stream(arr, 0, nextpos);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements PrimitiveIterator.OfLong {
+        private int i;
+
+        @Override
+        public boolean hasNext() {
+            return i < nextpos;
+        }
+
+        @Override
+        public long nextLong() {
+            if(i >= nextpos) {
+                throw new NoSuchElementException();
+            }
+
+            return arr[i++];
+        }
+    }
+
+    public static void main(String[] args) {
+        LongDynamicArray dynamicArray = new LongDynamicArray();
+
+        for(int i = 0; i < 10; i++) {
+            dynamicArray.add(i * i);
+        }
+
+        OutUtil.iterablePrint(dynamicArray);
+
+        // going through the elements without boxing them
+        PrimitiveIterator.OfLong it = dynamicArray.iterator();
+        long sum = 0;
+        while(it.hasNext()) {
+            sum += it.nextLong();
+        }
+        System.out.println("Sum: " + sum);
+        System.out.println("Sum of the stream: " + dynamicArray.stream().sum());
+
+        System.out.println();
+
+        // removing shifts the elements after it back
+        dynamicArray.remove(0);
+        dynamicArray.remove(3);
+        OutUtil.iterablePrint(dynamicArray);
+        System.out.printf("Size of array: %d%n", dynamicArray.size());
+
+        // removing element at invalid index
+        try {
+            System.out.println("Removing at invalid index!");
+            dynamicArray.remove(dynamicArray.size());
+        } catch(RuntimeException e) {
+            e.printStackTrace(System.out);
+        }
+    }
+}
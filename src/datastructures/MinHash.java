@@ -0,0 +1,272 @@
+package datastructures;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A MinHash sketch keeps the k smallest hashes of the values of a stream (this variant is also called bottom-k, or KMV
+ * for "k minimum values"). Like {@link HyperLogLog}, it takes a fixed amount of memory, 8 bytes per hash, no matter how
+ * long the stream is.
+ *
+ * Hashes look like random numbers between 0 and 1, spread evenly. If a stream has n distinct values, the k-th smallest
+ * of their hashes is around k / n, so n is estimated as (k - 1) / (the k-th smallest hash). A repeated value has the same
+ * hash as before, so it changes nothing.
+ *
+ * Where the sketch shines is comparing two streams. The k smallest hashes of the union of two streams are the k
+ * smallest of the hashes of both sketches together, and each of them is a random pick from the union. So the fraction
+ * of them that is in both sketches estimates the Jaccard similarity |A and B| / |A or B|, with a standard error of about
+ * 1 / sqrt(k). Unlike inclusion-exclusion with HyperLogLog, this works for small overlaps too, as long as the similarity
+ * isn't tiny compared to 1 / sqrt(k).
+ *
+ * Sketches with the same k can be merged into the sketch of both streams, in any order, so they can be filled by
+ * separate threads or machines and combined at the end. This class itself is not thread-safe. toBytes and fromBytes
+ * turn a sketch into bytes and back.
+ *
+ * The hashes are kept sorted in an array. Once the sketch is full, a new hash only gets in if it is smaller than the
+ * largest one kept, which happens less and less often as the stream goes on (about k * ln(n / k) times in total), so
+ * almost every add is a single comparison. The array starts out small and grows up to k as hashes come in, so a
+ * sketch only takes as much memory as the hashes it holds.
+ */
+public class MinHash {
+    /**
+     * The hashes are 63 bits, so they are never negative: a hash h stands for the number h / 2^63 between 0 and 1.
+     */
+    private static final double HASH_RANGE = 0x1p63;
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_K = Integer.MAX_VALUE - 8;
+
+    private final int k;
+    private long[] hashes; // sorted, and all different
+    private int size;
+
+    /**
+     * @param k The number of hashes to keep.
+     */
+    public MinHash(int k) {
+        if(k < 2 || k > MAX_K) {
+            throw new IllegalArgumentException();
+        }
+
+        this.k = k;
+        this.hashes = new long[Math.min(k, MIN_CAPACITY)];
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * The standard error of the Jaccard similarity, and about the relative error of the estimated count.
+     */
+    public double error() {
+        return 1 / Math.sqrt(k);
+    }
+
+    public void add(int value) {
+        add((long) value);
+    }
+
+    public void add(long value) {
+        long hash = hash(value) >>> 1;
+
+        if(size == k && hash >= hashes[k - 1]) {
+            return;
+        }
+
+        int i = Arrays.binarySearch(hashes, 0, size, hash);
+        if(i >= 0) {
+            return; // seen before
+        }
+        i = -i - 1;
+
+        if(size < k) {
+            if(size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, (int) Math.min(k, Math.max(MIN_CAPACITY, 2L * hashes.length)));
+            }
+            System.arraycopy(hashes, i, hashes, i + 1, size - i);
+            size++;
+        } else {
+            System.arraycopy(hashes, i, hashes, i + 1, k - 1 - i); // the largest hash falls off
+        }
+        hashes[i] = hash;
+    }
+
+    /**
+     * @return the estimated number of distinct values added so far. It is exact while fewer than k have been added.
+     */
+    public long estimate() {
+        if(size < k) {
+            return size;
+        }
+
+        return Math.round((k - 1) / (hashes[k - 1] / HASH_RANGE));
+    }
+
+    /**
+     * @return the estimated Jaccard similarity |A and B| / |A or B| of the values of this sketch and other.
+     */
+    public double jaccard(MinHash other) {
+        checkCompatible(other);
+
+        // go through the k smallest hashes of the union, and count the ones that are in both
+        int i = 0, j = 0;
+        int taken = 0, shared = 0;
+        while(taken < k && (i < size || j < other.size)) {
+            if(j == other.size || (i < size && hashes[i] < other.hashes[j])) {
+                i++;
+            } else if(i == size || other.hashes[j] < hashes[i]) {
+                j++;
+            } else {
+                i++;
+                j++;
+                shared++;
+            }
+            taken++;
+        }
+
+        return taken == 0 ? 0 : (double) shared / taken;
+    }
+
+    /**
+     * @return the estimated number of distinct values that were added to both sketches.
+     */
+    public long intersection(MinHash other) {
+        return Math.round(jaccard(other) * union(other).estimate());
+    }
+
+    /**
+     * Adds all the values of other to this sketch.
+     */
+    public void merge(MinHash other) {
+        checkCompatible(other);
+
+        long[] merged = new long[(int) Math.min(k, (long) size + other.size)];
+        int i = 0, j = 0, n = 0;
+        while(n < k && (i < size || j < other.size)) {
+            if(j == other.size || (i < size && hashes[i] < other.hashes[j])) {
+                merged[n++] = hashes[i++];
+            } else if(i == size || other.hashes[j] < hashes[i]) {
+                merged[n++] = other.hashes[j++];
+            } else {
+                merged[n++] = hashes[i++];
+                j++;
+            }
+        }
+
+        hashes = merged.length == n ? merged : Arrays.copyOf(merged, n);
+        size = n;
+    }
+
+    /**
+     * @return a new sketch of the values of both sketches. Neither sketch is changed.
+     */
+    public MinHash union(MinHash other) {
+        MinHash union = copy();
+        union.merge(other);
+        return union;
+    }
+
+    public MinHash copy() {
+        MinHash copy = new MinHash(k);
+        copy.hashes = Arrays.copyOf(hashes, size);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return k and the number of hashes (4 bytes each), followed by the hashes (8 bytes each).
+     */
+    public byte[] toBytes() {
+        long length = 2 * Integer.BYTES + (long) size * Long.BYTES;
+        if(length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Sketch is too large");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        buffer.putInt(k).putInt(size);
+        for(int i = 0; i < size; i++) {
+            buffer.putLong(hashes[i]);
+        }
+        return buffer.array();
+    }
+
+    public static MinHash fromBytes(byte[] bytes) {
+        if(bytes.length < 2 * Integer.BYTES) {
+            throw new IllegalArgumentException();
+        }
+
+        // check the header against the length of the input before allocating anything, since it can't be trusted
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int k = buffer.getInt();
+        int size = buffer.getInt();
+        if(size < 0 || size > k || buffer.remaining() != (long) size * Long.BYTES) {
+            throw new IllegalArgumentException();
+        }
+
+        MinHash sketch = new MinHash(k);
+        sketch.hashes = new long[size];
+        for(int i = 0; i < size; i++) {
+            long hash = buffer.getLong();
+            if(hash < 0 || (i > 0 && hash <= sketch.hashes[i - 1])) {
+                throw new IllegalArgumentException();
+            }
+            sketch.hashes[i] = hash;
+        }
+        sketch.size = size;
+
+        return sketch;
+    }
+
+    private void checkCompatible(MinHash other) {
+        if(other.k != k) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * The finalizer of MurmurHash3, see {@link HyperLogLog}.
+     */
+    private static long hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static void main(String[] args) {
+        // two streams of 2,000,000 ids that share 100,000 of them
+        MinHash a = new MinHash(4096);
+        MinHash b = new MinHash(4096);
+        for(int i = 0; i < 2000000; i++) {
+            a.add(i);
+            b.add(i + 1900000);
+        }
+
+        System.out.printf("Hashes: %d bytes, standard error %.2f%n", a.toBytes().length, a.error());
+        System.out.println("|A| ~ " + a.estimate() + " (2000000)");
+        System.out.println("|A or B| ~ " + a.union(b).estimate() + " (3900000)");
+        System.out.printf("Jaccard ~ %.4f (%.4f)%n", a.jaccard(b), 100000.0 / 3900000);
+        System.out.println("|A and B| ~ " + a.intersection(b) + " (100000)");
+
+        // the same overlap, estimated by HyperLogLog with about the same memory
+        HyperLogLog ha = new HyperLogLog(15);
+        HyperLogLog hb = new HyperLogLog(15);
+        for(int i = 0; i < 2000000; i++) {
+            ha.add(i);
+            hb.add(i + 1900000);
+        }
+        System.out.println("|A and B| by HyperLogLog ~ " + ha.intersection(hb) + " (100000)");
+
+        // merging two halves gives back the sketch of the whole stream
+        MinHash first = new MinHash(4096);
+        MinHash second = new MinHash(4096);
+        for(int i = 0; i < 2000000; i++) {
+            (i % 2 == 0 ? first : second).add(i);
+        }
+        first.merge(MinHash.fromBytes(second.toBytes()));
+        System.out.println("Merged halves equal the whole: " + Arrays.equals(first.toBytes(), a.toBytes()));
+    }
+}
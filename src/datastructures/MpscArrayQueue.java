@@ -0,0 +1,303 @@
+package datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The multi-producer version of {@link SpscArrayQueue}: any number of threads may add elements, but only one thread may
+ * remove them.
+ *
+ * With several producers, tail is no longer owned by a single thread, so a producer claims a slot by moving tail forward
+ * with a compare-and-set. Only the producer that wins the CAS may write to that slot. But now the consumer can't tell
+ * from tail alone that an element is there: a producer may have claimed a slot and not written to it yet. So the slots
+ * themselves are used as the signal: an empty slot is null, a producer writes the element with a release store, and the
+ * consumer only takes the element once the slot is no longer null. After taking it, the consumer sets the slot back to
+ * null before moving head forward, so a producer never sees a stale element in a slot it just claimed.
+ *
+ * The producers share one copy of head (producerLimit, the first counter value that doesn't fit), so they only read
+ * the consumer's counter when the queue looks full.
+ *
+ * Null can't be added, since poll returns null when the queue is empty.
+ *
+ * fill claims the slots for a whole batch at once, before it knows whether the supplier will deliver. If the supplier
+ * returns null or throws, the slots it didn't fill can't be given back (other producers may have claimed the ones after
+ * them already), so they are marked with SKIP instead, which the consumer steps over as if they were never there.
+ */
+public class MpscArrayQueue<T> {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * Written into the slots a failed fill claimed but couldn't fill.
+     */
+    private static final Object SKIP = new Object();
+
+    private final Object[] buffer;
+    private final int mask;
+
+    private final Sequence head = new Sequence(0);
+    private final Sequence tail = new Sequence(0);
+    private final Sequence producerLimit;
+
+    /**
+     * @param capacity How many elements fit. Rounded up to a power of two.
+     */
+    public MpscArrayQueue(int capacity) {
+        if(capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException();
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+        this.producerLimit = new Sequence(size);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * The number of elements in the queue (including ones that are still being written). Since the threads keep
+     * working, this is only a snapshot.
+     */
+    public int size() {
+        long h = head.get();
+        return (int) Math.max(0, tail.get() - h);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds an element. Can be called from any thread.
+     * @return false if the queue is full.
+     */
+    public boolean offer(T item) {
+        if(item == null) {
+            throw new IllegalArgumentException();
+        }
+
+        long limit = producerLimit.get();
+        long t;
+        do {
+            t = tail.get();
+            if(t >= limit) {
+                limit = head.get() + buffer.length;
+                if(t >= limit) {
+                    return false;
+                }
+                producerLimit.setRelease(limit);
+            }
+        } while(!tail.compareAndSet(t, t + 1));
+
+        SLOT.setRelease(buffer, (int) t & mask, item);
+        return true;
+    }
+
+    /**
+     * Removes an element. Must only be called from the consumer thread.
+     * @return the element, or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long h = head.getPlain();
+        while(true) {
+            int index = (int) h & mask;
+
+            Object item = SLOT.getAcquire(buffer, index);
+            if(item == null) {
+                if(h == tail.get()) {
+                    return null;
+                }
+
+                // a producer has claimed the slot but hasn't written to it yet. it is about to, so wait for it.
+                do {
+                    Thread.onSpinWait();
+                    item = SLOT.getAcquire(buffer, index);
+                } while(item == null);
+            }
+
+            SLOT.setOpaque(buffer, index, null);
+            head.setRelease(++h);
+            if(item != SKIP) {
+                return (T) item;
+            }
+        }
+    }
+
+    /**
+     * Removes up to limit elements and hands them to the consumer, in order. Stops early at a slot that has been
+     * claimed but not written yet, instead of waiting for it. Must only be called from the consumer thread.
+     * @return how many elements were removed.
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super T> consumer, int limit) {
+        long h = head.getPlain();
+        long next = h;
+
+        int n = 0;
+        try {
+            while(n < limit) {
+                int index = (int) next & mask;
+                Object item = SLOT.getAcquire(buffer, index);
+                if(item == null) {
+                    break;
+                }
+
+                SLOT.setOpaque(buffer, index, null);
+                next++; // count the element as removed before the consumer sees it, in case the consumer throws
+                if(item == SKIP) {
+                    continue;
+                }
+
+                n++;
+                consumer.accept((T) item);
+            }
+        } finally {
+            if(next != h) {
+                head.setRelease(next);
+            }
+        }
+
+        return n;
+    }
+
+    /**
+     * Adds up to limit elements taken from the supplier, as long as there is room. The slots for the whole batch are
+     * claimed with a single compare-and-set, before the supplier is called. If the supplier returns null, this throws an
+     * IllegalArgumentException (and if the supplier throws, that is passed on), but the elements it supplied before that
+     * stay in the queue. Can be called from any thread.
+     * @return how many elements were added.
+     */
+    public int fill(Supplier<? extends T> supplier, int limit) {
+        long t;
+        int n;
+        do {
+            t = tail.get();
+            long h = head.get();
+            n = (int) Math.min(limit, buffer.length - (t - h));
+            if(n <= 0) {
+                return 0;
+            }
+        } while(!tail.compareAndSet(t, t + n));
+
+        // the slots are ours now, so every one of them has to be written, or the consumer would wait for it forever
+        int i = 0;
+        try {
+            for(; i < n; i++) {
+                T item = supplier.get();
+                if(item == null) {
+                    throw new IllegalArgumentException();
+                }
+                SLOT.setRelease(buffer, (int) (t + i) & mask, item);
+            }
+        } finally {
+            for(; i < n; i++) {
+                SLOT.setRelease(buffer, (int) (t + i) & mask, SKIP);
+            }
+        }
+
+        return n;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = 4, perProducer = 250000;
+        MpscArrayQueue<Long> queue = new MpscArrayQueue<>(64);
+
+        Thread[] threads = new Thread[producers];
+        for(int p = 0; p < producers; p++) {
+            long id = p;
+            threads[p] = new Thread(() -> {
+                long i = 0;
+                int batches = 0;
+                while(i < perProducer) {
+                    // every other round moves a batch with fill instead of single elements with offer
+                    int added;
+                    if((i & 1) == 0) {
+                        // now and then, the supplier returns null or throws after 5 elements. the slots it leaves
+                        // unfilled must not hold up the consumer.
+                        int failure = batches++ % 8;
+                        long stop = i + 5;
+                        long[] next = {i};
+                        Supplier<Long> supplier = () -> {
+                            if(next[0] == stop && failure == 0) {
+                                return null;
+                            } else if(next[0] == stop && failure == 4) {
+                                throw new IllegalStateException();
+                            }
+                            return id << 32 | next[0]++;
+                        };
+
+                        try {
+                            added = queue.fill(supplier, (int) Math.min(17, perProducer - i));
+                        } catch(RuntimeException e) {
+                            added = (int) (next[0] - i);
+                        }
+                    } else {
+                        added = queue.offer(id << 32 | i) ? 1 : 0;
+                    }
+
+                    i += added;
+                    if(added == 0) {
+                        Thread.yield(); // full, let the consumer run
+                    }
+                }
+            });
+        }
+
+        // only one consumer, so it can check the order of every producer's elements without any locking
+        boolean[] seen = new boolean[producers * perProducer];
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        boolean[] failed = new boolean[1];
+        int[] removed = new int[1];
+
+        Consumer<Long> check = item -> {
+            int producer = (int) (item >>> 32);
+            int i = (int) (long) item;
+            if(i <= lastSeen[producer]) {
+                failed[0] = true; // out of order
+            }
+            lastSeen[producer] = i;
+
+            int index = producer * perProducer + i;
+            if(seen[index]) {
+                failed[0] = true; // removed twice
+            }
+            seen[index] = true;
+            removed[0]++;
+        };
+
+        for(Thread thread : threads) thread.start();
+
+        while(removed[0] < producers * perProducer) {
+            if((removed[0] & 1) == 0) {
+                if(queue.drain(check, 13) == 0) {
+                    Thread.yield();
+                }
+            } else {
+                Long item = queue.poll();
+                if(item == null) {
+                    Thread.yield();
+                } else {
+                    check.accept(item);
+                }
+            }
+        }
+
+        for(Thread thread : threads) thread.join();
+
+        for(boolean s : seen) {
+            if(!s) {
+                failed[0] = true; // never removed
+            }
+        }
+
+        System.out.println(failed[0] ? "FAILED" : "Every element was removed exactly once and in order");
+        System.out.println("Empty: " + queue.isEmpty());
+    }
+}
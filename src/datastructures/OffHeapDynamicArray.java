@@ -0,0 +1,358 @@
+package datastructures;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This is a dynamic array of fixed-size records that is stored outside of the Java heap. Every record has the same
+ * number of bytes, and is read and written one field at a time, like a struct: getLong(i, 8) reads the long at byte 8
+ * of record i.
+ *
+ * A {@link DynamicArray} of millions of small objects is hard on the garbage collector. Every object has to be found and
+ * looked at by every full collection, so the pauses get longer the more data the heap holds. The records here are
+ * stored in direct ByteBuffers, whose memory isn't part of the heap, so the garbage collector only sees the few buffer
+ * objects and never the data in them. The price is that the records aren't objects: they have to be read and written
+ * field by field.
+ *
+ * The capacity grows and shrinks the same way as in DynamicArray: it is doubled when the array is full, and halved when
+ * it is only 1/4 full. A single ByteBuffer can hold at most 2 GB, though, so the memory is split into blocks of (at
+ * most) 1 GB:
+ *
+ * - While the capacity fits in one block, there is just one buffer, and resizing copies it into a new one, exactly like
+ * DynamicArray does.
+ * - Beyond that, doubling the capacity means doubling the number of blocks, and halving it means freeing the last half
+ * of them. Nothing is copied in this case.
+ *
+ * The number of records per block is a power of two, so finding the block of a record is a shift and finding the
+ * record within it is a bitwise and.
+ *
+ * Memory that isn't on the heap isn't freed by the garbage collector right away. A direct buffer is only freed once the
+ * buffer object itself has been collected, which can take a long time, since the garbage collector doesn't know how
+ * much memory is attached to it. So the array frees its buffers itself, as soon as it stops using them, and all of them
+ * when it is closed. After close, the array can't be used anymore. Use it in a try-with-resources block, or call close
+ * explicitly.
+ *
+ * The JVM limits the total size of direct buffers with -XX:MaxDirectMemorySize, which is the same as the maximum heap
+ * size by default. It has to be raised to store more than that.
+ */
+public class OffHeapDynamicArray implements AutoCloseable {
+    private static final int MIN_CAPACITY = 4;
+    private static final int MAX_BLOCK_BYTES = 1 << 30;
+
+    /**
+     * sun.misc.Unsafe.invokeCleaner(ByteBuffer), which frees the memory of a direct buffer right away. It isn't part of
+     * the public API, so it is looked up by reflection, and the buffers are left to the garbage collector if it isn't
+     * there.
+     */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final int recordSize;
+    private final int blockShift; // log2 of the number of records per block
+    private final long blockMask;
+    private final long minCapacity;
+
+    private ByteBuffer[] blocks;
+    private int blockCount;
+    private long capacity; // in records
+    private long size;
+
+    /**
+     * @param recordSize The number of bytes of every record
+     */
+    public OffHeapDynamicArray(int recordSize) {
+        this(recordSize, MAX_BLOCK_BYTES);
+    }
+
+    /**
+     * @param maxBlockBytes The largest buffer to use. Only smaller than the default to try out the code that handles
+     *                      several blocks without allocating gigabytes.
+     */
+    OffHeapDynamicArray(int recordSize, int maxBlockBytes) {
+        if(recordSize < 1 || recordSize > maxBlockBytes) {
+            throw new IllegalArgumentException();
+        }
+
+        int recordsPerBlock = Integer.highestOneBit(maxBlockBytes / recordSize);
+
+        this.recordSize = recordSize;
+        this.blockShift = Integer.numberOfTrailingZeros(recordsPerBlock);
+        this.blockMask = recordsPerBlock - 1;
+
+        this.minCapacity = Math.min(MIN_CAPACITY, recordsPerBlock);
+        this.capacity = minCapacity;
+        this.blocks = new ByteBuffer[1];
+        this.blocks[0] = allocate(capacity);
+        this.blockCount = 1;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Adds a record at the end, with all of its bytes set to 0.
+     * @return the index of the new record.
+     */
+    public long add() {
+        checkOpen();
+
+        if(size == capacity) {
+            resize(capacity * 2);
+        }
+
+        long i = size++;
+        ByteBuffer block = blocks[(int) (i >>> blockShift)];
+        int start = position(i);
+        int j = 0;
+        for(; j + Long.BYTES <= recordSize; j += Long.BYTES) {
+            block.putLong(start + j, 0);
+        }
+        for(; j < recordSize; j++) {
+            block.put(start + j, (byte) 0);
+        }
+
+        return i;
+    }
+
+    /**
+     * Removes the record at index i, and shifts the records after it back by one.
+     */
+    public void remove(long i) {
+        checkOpen();
+        checkIndex(i);
+
+        moveRecords(i + 1, i, size - i - 1);
+        size--;
+
+        if(size <= capacity / 4 && capacity / 2 >= minCapacity) {
+            resize(capacity / 2);
+        }
+    }
+
+    public byte getByte(long i, int offset) {
+        return block(i, offset, Byte.BYTES).get(position(i) + offset);
+    }
+
+    public void putByte(long i, int offset, byte value) {
+        block(i, offset, Byte.BYTES).put(position(i) + offset, value);
+    }
+
+    public int getInt(long i, int offset) {
+        return block(i, offset, Integer.BYTES).getInt(position(i) + offset);
+    }
+
+    public void putInt(long i, int offset, int value) {
+        block(i, offset, Integer.BYTES).putInt(position(i) + offset, value);
+    }
+
+    public long getLong(long i, int offset) {
+        return block(i, offset, Long.BYTES).getLong(position(i) + offset);
+    }
+
+    public void putLong(long i, int offset, long value) {
+        block(i, offset, Long.BYTES).putLong(position(i) + offset, value);
+    }
+
+    public double getDouble(long i, int offset) {
+        return block(i, offset, Double.BYTES).getDouble(position(i) + offset);
+    }
+
+    public void putDouble(long i, int offset, double value) {
+        block(i, offset, Double.BYTES).putDouble(position(i) + offset, value);
+    }
+
+    /**
+     * Frees all the memory of the array. Calling it again does nothing.
+     */
+    @Override
+    public void close() {
+        if(blocks == null) {
+            return;
+        }
+
+        for(int b = 0; b < blockCount; b++) {
+            free(blocks[b]);
+        }
+
+        blocks = null;
+        blockCount = 0;
+        capacity = 0;
+        size = 0;
+    }
+
+    /**
+     * Checks the index and the field, and returns the block holding the field.
+     */
+    private ByteBuffer block(long i, int offset, int width) {
+        checkOpen();
+        checkIndex(i);
+        if(offset < 0 || offset > recordSize - width) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return blocks[(int) (i >>> blockShift)];
+    }
+
+    /**
+     * The byte position of record i within its block.
+     */
+    private int position(long i) {
+        return (int) (i & blockMask) * recordSize;
+    }
+
+    private void checkIndex(long i) {
+        if(i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private void checkOpen() {
+        if(blocks == null) {
+            throw new IllegalStateException("Array is closed");
+        }
+    }
+
+    /**
+     * Copies count records from index from to index to, where to is less than from. The records are copied in pieces
+     * that don't cross the end of a block, from the front to the back, so the source records are always read before
+     * they are overwritten.
+     */
+    private void moveRecords(long from, long to, long count) {
+        long recordsPerBlock = blockMask + 1;
+
+        while(count > 0) {
+            long n = Math.min(count, Math.min(recordsPerBlock - (from & blockMask), recordsPerBlock - (to & blockMask)));
+
+            ByteBuffer src = blocks[(int) (from >>> blockShift)];
+            ByteBuffer dst = blocks[(int) (to >>> blockShift)];
+            dst.put(position(to), src, position(from), (int) n * recordSize); // handles overlap within one buffer
+
+            from += n;
+            to += n;
+            count -= n;
+        }
+    }
+
+    private void resize(long newCapacity) {
+        long recordsPerBlock = blockMask + 1;
+
+        if(newCapacity <= recordsPerBlock) {
+            // a single block: copy it into a buffer of the new size, like DynamicArray does. when shrinking from two
+            // blocks to one, the records are all in the first block, which already has the right size.
+            if(blocks[0].capacity() != newCapacity * recordSize) {
+                ByteBuffer old = blocks[0];
+                blocks[0] = allocate(newCapacity);
+                blocks[0].put(0, old, 0, (int) size * recordSize);
+                free(old);
+            }
+            for(int b = 1; b < blockCount; b++) {
+                free(blocks[b]);
+                blocks[b] = null;
+            }
+
+            blockCount = 1;
+        } else {
+            int newBlockCount = (int) (newCapacity >>> blockShift);
+            if(newBlockCount > blocks.length) {
+                ByteBuffer[] newBlocks = new ByteBuffer[newBlockCount];
+                System.arraycopy(blocks, 0, newBlocks, 0, blockCount);
+                blocks = newBlocks;
+            }
+
+            // the capacities are powers of two, so the first block is a full one by now. add blocks when growing, free
+            // them when shrinking.
+            for(int b = blockCount; b < newBlockCount; b++) {
+                blocks[b] = allocate(recordsPerBlock);
+            }
+            for(int b = newBlockCount; b < blockCount; b++) {
+                free(blocks[b]);
+                blocks[b] = null;
+            }
+
+            blockCount = newBlockCount;
+        }
+
+        capacity = newCapacity;
+    }
+
+    private ByteBuffer allocate(long records) {
+        return ByteBuffer.allocateDirect((int) records * recordSize).order(ByteOrder.nativeOrder());
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if(INVOKE_CLEANER == null) {
+            return; // the garbage collector will free it eventually
+        }
+
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch(ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) {
+        // records of an id (a long at byte 0) and a value (a double at byte 8)
+        int id = 0, value = 8;
+
+        try(OffHeapDynamicArray records = new OffHeapDynamicArray(16)) {
+            for(int k = 0; k < 1000000; k++) {
+                long i = records.add();
+                records.putLong(i, id, k);
+                records.putDouble(i, value, k * 0.5);
+            }
+
+            System.out.printf("%d records, capacity %d%n", records.size(), records.capacity());
+
+            double sum = 0;
+            for(long i = 0; i < records.size(); i++) {
+                sum += records.getDouble(i, value);
+            }
+            System.out.println("Sum of values: " + sum);
+
+            // removing shifts the records after it back
+            records.remove(0);
+            System.out.println("First id after removing record 0: " + records.getLong(0, id));
+
+            while(records.size() > 10) {
+                records.remove(records.size() - 1);
+            }
+            System.out.printf("%d records, capacity %d%n", records.size(), records.capacity());
+
+            try {
+                System.out.println("Reading past the end of a record!");
+                records.getLong(0, 12);
+            } catch(RuntimeException e) {
+                e.printStackTrace(System.out);
+            }
+        }
+    }
+}
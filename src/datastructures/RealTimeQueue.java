@@ -0,0 +1,255 @@
+package datastructures;
+
+import util.OutUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * This is a version of {@link DoubleStackQueue} where every operation takes constant time in the worst case, not just
+ * on average. It is the imperative version of the real-time queue by Hood and Melville.
+ *
+ * DoubleStackQueue moves all of s1 over to s2 at once, whenever s2 runs empty. On average that is cheap, since every
+ * element is moved only once, but the one dequeue that has to move a million elements is very slow. Here, the same
+ * move (called a rotation) is done a few steps at a time, spread over the operations that follow.
+ *
+ * We have a front stack, which dequeue takes from, and a back stack, which enqueue adds to. A rotation starts as soon
+ * as the back stack has more elements than the front stack, so it is started early enough to finish before the front
+ * stack runs out. A rotation builds a new front stack containing the front elements followed by the back elements:
+ *
+ * 1. The back stack is popped onto a new stack (rebuilt), which reverses it, so its oldest element ends up on top. At
+ * the same time, the front elements are copied onto a helper stack. They are copied (by walking down the front stack)
+ * instead of popped, because dequeue keeps taking elements from the front stack during the rotation. New elements are
+ * added to a fresh back stack in the meantime.
+ *
+ * 2. The helper stack is popped onto rebuilt, which puts the front elements on top of the back elements, in the right
+ * order. The front elements that were dequeued in the meantime are at the bottom of the helper stack, so they are just
+ * left out.
+ *
+ * 3. The rebuilt stack becomes the new front stack.
+ *
+ * With n elements in the front stack, a rotation takes at most 2n + 1 steps. Doing 3 steps per operation finishes it
+ * within n operations, before dequeue could have emptied the front stack.
+ */
+public class RealTimeQueue<T> implements Iterable<T> {
+    /**
+     * How many steps of a rotation every operation does.
+     */
+    private static final int STEPS = 3;
+
+    private LinkedListStack<T> front = new LinkedListStack<>();
+    private LinkedListStack<T> back = new LinkedListStack<>();
+    private int frontSize;
+    private int backSize;
+
+    // the state of the rotation in progress. rotating is false between rotations.
+    private boolean rotating;
+    private Iterator<T> frontCopier; // walks down the front stack as it was when the rotation started
+    private LinkedListStack<T> oldBack; // the back stack that is being reversed
+    private LinkedListStack<T> copied; // the copy of the front stack, upside down
+    private LinkedListStack<T> rebuilt; // the new front stack
+    private int toReverse; // elements left in oldBack
+    private int toCopy; // elements of the front stack left to copy
+    private int copiedSize; // elements in copied
+    private int rebuiltSize;
+    private int movedBack; // front elements put on top of rebuilt in phase 2
+    private int dequeuedDuringRotation;
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int size() {
+        if(!rotating) {
+            return frontSize + backSize;
+        }
+
+        // the front elements on top of rebuilt are still in the front stack as well, so don't count them twice
+        return frontSize + toReverse + (rebuiltSize - movedBack) + backSize;
+    }
+
+    public void enqueue(T item) {
+        back.add(item);
+        backSize++;
+
+        step();
+    }
+
+    public T dequeue() {
+        step();
+
+        if(frontSize == 0) {
+            return null; // outside of a rotation the back stack is never bigger than the front stack, so both are empty
+        }
+
+        T item = front.remove();
+        frontSize--;
+        if(rotating) {
+            dequeuedDuringRotation++;
+            finishIfDone();
+        }
+
+        startRotationIfNeeded();
+        return item;
+    }
+
+    /**
+     * Does a few steps of the rotation in progress, or starts a new one if the back stack has become too big.
+     */
+    private void step() {
+        if(!rotating) {
+            startRotationIfNeeded();
+            if(!rotating) {
+                return;
+            }
+        }
+
+        for(int i = 0; i < STEPS && rotating; i++) {
+            if(toReverse > 0 || toCopy > 0) {
+                // phase 1: reverse the old back stack and copy the front stack, side by side
+                if(toReverse > 0) {
+                    rebuilt.add(oldBack.remove());
+                    toReverse--;
+                    rebuiltSize++;
+                }
+                if(toCopy > 0) {
+                    copied.add(frontCopier.next());
+                    toCopy--;
+                    copiedSize++;
+                }
+            } else {
+                // phase 2: put the copied front elements that are still in the queue on top of the rebuilt stack
+                rebuilt.add(copied.remove());
+                copiedSize--;
+                rebuiltSize++;
+                movedBack++;
+            }
+
+            finishIfDone();
+        }
+    }
+
+    /**
+     * Does phase 3 once phase 2 has nothing left to move.
+     *
+     * Dequeue always takes the oldest element, and the copied elements are moved newest first, so the dequeued elements
+     * are always ones that haven't been moved yet. Once every copied element is either moved or dequeued, the rebuilt
+     * stack holds exactly the elements the front stack holds, followed by the old back stack. This has to be checked
+     * right away, not at the next step: another dequeue would take an element that has been moved already.
+     */
+    private void finishIfDone() {
+        if(toReverse == 0 && toCopy == 0 && copiedSize <= dequeuedDuringRotation) {
+            front = rebuilt;
+            frontSize = rebuiltSize;
+
+            rotating = false;
+            frontCopier = null;
+            oldBack = null;
+            copied = null; // the elements still in it were dequeued already
+            rebuilt = null;
+        }
+    }
+
+    private void startRotationIfNeeded() {
+        if(rotating || backSize <= frontSize) {
+            return;
+        }
+
+        rotating = true;
+        frontCopier = front.iterator();
+        toCopy = frontSize;
+        oldBack = back;
+        toReverse = backSize;
+        copied = new LinkedListStack<>();
+        copiedSize = 0;
+        rebuilt = new LinkedListStack<>();
+        rebuiltSize = 0;
+        movedBack = 0;
+        dequeuedDuringRotation = 0;
+
+        back = new LinkedListStack<>();
+        backSize = 0;
+    }
+
+    /**
+     * Iterates over a snapshot of the queue, from the oldest element to the newest.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        List<T> items = new ArrayList<>();
+
+        for(T item : front) {
+            items.add(item);
+        }
+
+        if(rotating) {
+            if(toReverse > 0 || toCopy > 0) {
+                // the oldest elements of the old back stack are still in it (newest on top), the newer ones are
+                // in rebuilt already (oldest on top)
+                items.addAll(reversed(oldBack));
+                for(T item : rebuilt) {
+                    items.add(item);
+                }
+            } else {
+                // the top of rebuilt holds the front elements that were moved back already, skip them
+                int skip = movedBack;
+                for(T item : rebuilt) {
+                    if(skip > 0) {
+                        skip--;
+                    } else {
+                        items.add(item);
+                    }
+                }
+            }
+        }
+
+        items.addAll(reversed(back));
+        return items.iterator();
+    }
+
+    private static <T> List<T> reversed(LinkedListStack<T> stack) {
+        List<T> items = new ArrayList<>();
+        for(T item : stack) {
+            items.add(item);
+        }
+        Collections.reverse(items);
+        return items;
+    }
+
+    public static void main(String[] args) {
+        RealTimeQueue<Integer> queue = new RealTimeQueue<>();
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+
+        for(int i = 0; i < 10; i++) {
+            System.out.println(queue.dequeue());
+        }
+
+        System.out.println();
+        System.out.println("Test iterator");
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+
+        OutUtil.iterablePrint(queue);
+
+        queue = new RealTimeQueue<>();
+
+        System.out.println();
+        System.out.println("Repeatedly enqueue and dequeue");
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+            System.out.println(queue.dequeue());
+        }
+
+        System.out.println();
+        System.out.println("Empty");
+        System.out.println(queue.dequeue());
+    }
+}
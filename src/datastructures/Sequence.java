@@ -0,0 +1,67 @@
+package datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A counter shared between threads, padded so that it sits on a cache line of its own.
+ *
+ * The CPU moves memory between cores in cache lines of 64 bytes. If a producer's counter and a consumer's counter
+ * happen to share a line, every write to one of them invalidates the line in the other core's cache, even though the
+ * two threads never touch the same variable. This "false sharing" can easily cost more than the work itself.
+ *
+ * The JVM is free to reorder the fields within a class, but the fields of a superclass always come before those of a
+ * subclass. So the value is put in a class between two classes that only contain padding, which keeps 56 bytes on
+ * either side of it.
+ */
+final class Sequence extends SequenceValue {
+    long p9, p10, p11, p12, p13, p14, p15;
+
+    Sequence(long initial) {
+        VALUE.setRelease(this, initial);
+    }
+
+    /**
+     * Reads the value with acquire semantics: everything the writer did before publishing this value is visible.
+     */
+    long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * Reads the value without any ordering. Only safe for the thread that is the only one to write it.
+     */
+    long getPlain() {
+        return (long) VALUE.get(this);
+    }
+
+    /**
+     * Publishes the value with release semantics: everything this thread wrote before is visible to a thread that sees
+     * the new value. This is cheaper than a volatile write, which would also wait for the write to be seen.
+     */
+    void setRelease(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    boolean compareAndSet(long expected, long value) {
+        return VALUE.compareAndSet(this, expected, value);
+    }
+}
+
+abstract class SequencePadding {
+    long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequencePadding {
+    static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile long value;
+}
@@ -0,0 +1,220 @@
+package datastructures;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A bounded queue for handing elements from exactly one producer thread to exactly one consumer thread, without locks
+ * and without allocating anything per element.
+ *
+ * Like {@link CircularArrayQueue}, the elements live in a circular array whose capacity is a power of two. Instead of
+ * a head index and a size, there are two counters that only ever go up: tail counts the elements added and head counts
+ * the elements removed. Element number i lives at index i & (capacity - 1).
+ *
+ * Only the producer writes tail, and only the consumer writes head, so neither needs a compare-and-set. The producer
+ * writes the element first and then publishes the new tail (a release store), which guarantees that the consumer sees
+ * the element once it sees the tail. The same goes the other way round for head, so the producer never overwrites a
+ * slot the consumer is still reading.
+ *
+ * Reading the other thread's counter is the expensive part, since its cache line has to be fetched from the other core.
+ * So each side keeps a private copy of the other counter, and only reads the real one when the copy says the queue is
+ * full (or empty). {@link #drain(Consumer, int)} and {@link #fill(Supplier, int)} go further and move a whole batch of
+ * elements with a single read and a single write of the counters.
+ *
+ * Null can't be added, since poll returns null when the queue is empty.
+ */
+public class SpscArrayQueue<T> {
+    private final T[] buffer;
+    private final int mask;
+
+    private final Sequence head = new Sequence(0);
+    private final Sequence tail = new Sequence(0);
+
+    // the producer's copy of head and the consumer's copy of tail, kept apart so they don't share a cache line either
+    private final Sequence headCache = new Sequence(0);
+    private final Sequence tailCache = new Sequence(0);
+
+    /**
+     * @param capacity How many elements fit. Rounded up to a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public SpscArrayQueue(int capacity) {
+        if(capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException();
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = (T[]) new Object[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * The number of elements in the queue. Since both threads keep working, this is only a snapshot.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Adds an element. Must only be called from the producer thread.
+     * @return false if the queue is full.
+     */
+    public boolean offer(T item) {
+        if(item == null) {
+            throw new IllegalArgumentException();
+        }
+
+        long t = tail.getPlain();
+        if(t - headCache.getPlain() >= buffer.length) {
+            long h = head.get();
+            headCache.setRelease(h);
+            if(t - h >= buffer.length) {
+                return false;
+            }
+        }
+
+        buffer[(int) t & mask] = item;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes an element. Must only be called from the consumer thread.
+     * @return the element, or null if the queue is empty.
+     */
+    public T poll() {
+        long h = head.getPlain();
+        if(h >= tailCache.getPlain()) {
+            long t = tail.get();
+            tailCache.setRelease(t);
+            if(h >= t) {
+                return null;
+            }
+        }
+
+        int index = (int) h & mask;
+        T item = buffer[index];
+        buffer[index] = null;
+        head.setRelease(h + 1);
+        return item;
+    }
+
+    /**
+     * Removes up to limit elements and hands them to the consumer, in order. Must only be called from the consumer
+     * thread.
+     * @return how many elements were removed.
+     */
+    public int drain(Consumer<? super T> consumer, int limit) {
+        long h = head.getPlain();
+        long t = tail.get();
+        int n = (int) Math.min(limit, t - h);
+
+        int i = 0;
+        try {
+            while(i < n) {
+                int index = (int) (h + i) & mask;
+                T item = buffer[index];
+                buffer[index] = null;
+                i++; // count the element as removed before the consumer sees it, in case the consumer throws
+
+                consumer.accept(item);
+            }
+        } finally {
+            if(i > 0) {
+                head.setRelease(h + i);
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Adds up to limit elements taken from the supplier, as long as there is room. Must only be called from the
+     * producer thread.
+     * @return how many elements were added.
+     */
+    public int fill(Supplier<? extends T> supplier, int limit) {
+        long t = tail.getPlain();
+        long h = head.get();
+        headCache.setRelease(h);
+        int n = (int) Math.min(limit, buffer.length - (t - h));
+
+        for(int i = 0; i < n; i++) {
+            T item = supplier.get();
+            if(item == null) {
+                throw new IllegalArgumentException();
+            }
+            buffer[(int) (t + i) & mask] = item;
+        }
+
+        if(n > 0) {
+            tail.setRelease(t + n);
+        }
+        return Math.max(n, 0);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // a small queue, so that the counters wrap around the buffer many times and the producer often finds it full
+        int count = 1000000;
+        SpscArrayQueue<Long> queue = new SpscArrayQueue<>(64);
+        boolean[] failed = new boolean[1];
+
+        Thread producer = new Thread(() -> {
+            long next = 0;
+            while(next < count) {
+                // every other round moves a batch with fill instead of single elements with offer
+                int added;
+                if((next & 1) == 0) {
+                    long[] value = {next};
+                    added = queue.fill(() -> value[0]++, (int) Math.min(17, count - next));
+                } else {
+                    added = queue.offer(next) ? 1 : 0;
+                }
+
+                next += added;
+                if(added == 0) {
+                    Thread.yield(); // full, let the consumer run
+                }
+            }
+        });
+
+        Thread consumer = new Thread(() -> {
+            long[] expected = {0};
+            while(expected[0] < count) {
+                if((expected[0] & 1) == 0) {
+                    int removed = queue.drain(item -> {
+                        if(item != expected[0]++) {
+                            failed[0] = true; // lost, repeated or out of order
+                        }
+                    }, 13);
+                    if(removed == 0) {
+                        Thread.yield(); // empty, let the producer run
+                    }
+                } else {
+                    Long item = queue.poll();
+                    if(item == null) {
+                        Thread.yield();
+                    } else if(item != expected[0]++) {
+                        failed[0] = true;
+                    }
+                }
+            }
+        });
+
+        producer.start();
+        consumer.start();
+        producer.join();
+        consumer.join();
+
+        System.out.println(failed[0] ? "FAILED" : "Every element was removed exactly once and in order");
+        System.out.println("Empty: " + queue.isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package datastructures;
+
+import util.OutUtil;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This is a version of {@link LinkedListQueue} where every node holds a whole chunk of elements (an unrolled linked
+ * list), instead of a single one. See {@link UnrolledLinkedListStack} for why.
+ *
+ * The chunks are linked from the front of the queue to the back. Enqueue writes into the last chunk, and links a new
+ * chunk after it when it is full. Dequeue reads from the first chunk, and moves on to the next chunk once it has taken
+ * the last element of the first one. So only the first and the last chunk can be partly used, and nothing is ever
+ * copied.
+ *
+ * Like in the stack, a chunk that has been emptied is kept as a spare, so a queue that stays about the same size keeps
+ * reusing the same chunks.
+ */
+public class UnrolledLinkedListQueue<T> implements Iterable<T> {
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private final int chunkSize;
+    private Chunk first;
+    private int firstIndex; // index of the first element in the first chunk
+    private Chunk last;
+    private int lastIndex; // index after the last element in the last chunk
+    private Chunk spare;
+    private int size;
+
+    /**
+     * A node of the list, holding up to chunkSize elements.
+     */
+    private class Chunk {
+        final Object[] items = new Object[chunkSize];
+        Chunk next;
+    }
+
+    public UnrolledLinkedListQueue() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize How many elements each node holds
+     */
+    public UnrolledLinkedListQueue(int chunkSize) {
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.chunkSize = chunkSize;
+        this.first = this.last = new Chunk();
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void enqueue(T item) {
+        if(lastIndex == chunkSize) {
+            Chunk c = spare != null ? spare : new Chunk();
+            spare = null;
+
+            last.next = c;
+            last = c;
+            lastIndex = 0;
+        }
+
+        last.items[lastIndex++] = item;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T dequeue() {
+        if(size == 0) {
+            return null;
+        }
+
+        T item = (T) first.items[firstIndex];
+        first.items[firstIndex++] = null; // don't keep the element alive
+        size--;
+
+        if(size == 0) {
+            // start over at the beginning of the chunk, instead of moving on to a new one
+            first.next = null;
+            last = first;
+            firstIndex = lastIndex = 0;
+        } else if(firstIndex == chunkSize) {
+            Chunk empty = first;
+            first = first.next;
+            firstIndex = 0;
+
+            empty.next = null;
+            spare = empty;
+        }
+
+        return item;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new QueueIterator();
+    }
+
+    private class QueueIterator implements Iterator<T> {
+        private Chunk chunk = first;
+        private int i = firstIndex;
+        private int remaining = size;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if(remaining == 0) {
+                throw new NoSuchElementException();
+            }
+
+            if(i == chunkSize) {
+                chunk = chunk.next;
+                i = 0;
+            }
+
+            remaining--;
+            return (T) chunk.items[i++];
+        }
+    }
+
+    public static void main(String[] args) {
+        UnrolledLinkedListQueue<Integer> queue = new UnrolledLinkedListQueue<>(4);
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+
+        for(int i = 0; i < 10; i++) {
+            System.out.println(queue.dequeue());
+        }
+
+        System.out.println();
+        System.out.println("Test iterator");
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+        }
+
+        OutUtil.iterablePrint(queue);
+
+        queue = new UnrolledLinkedListQueue<>(4);
+
+        System.out.println();
+        System.out.println("Repeatedly enqueue and dequeue");
+
+        for(int i = 0; i < 10; i++) {
+            queue.enqueue(i);
+            System.out.println(queue.dequeue());
+        }
+
+        System.out.println();
+        System.out.println("Empty");
+        System.out.println(queue.dequeue());
+    }
+}
@@ -0,0 +1,157 @@
+package datastructures;
+
+import util.OutUtil;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This is a version of {@link LinkedListStack} where every node holds a whole chunk of elements (an unrolled linked
+ * list), instead of a single one.
+ *
+ * In LinkedListStack, every element costs a node of its own: an object header and a next pointer on top of the
+ * reference to the element, so the list takes several times the memory of the elements it holds. The nodes are also
+ * scattered all over memory, so going through the stack means a cache miss at almost every element. An array
+ * (see {@link DynamicArrayStack}) doesn't have either problem, but it has to copy everything whenever it grows.
+ *
+ * Here, the elements are stored in arrays of a fixed size (chunks), and only the chunks are linked together. Within a
+ * chunk, the elements sit next to each other like in an array, so the cost of a node is shared by a whole chunk of
+ * elements. When the top chunk is full, a new chunk is linked on top of it, so nothing is ever copied.
+ *
+ * When the top chunk runs empty, it is kept as a spare instead of being thrown away. Otherwise, a stack whose size goes
+ * back and forth across the edge of a chunk would create a new chunk every few operations.
+ */
+public class UnrolledLinkedListStack<T> implements Iterable<T> {
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private final int chunkSize;
+    private Chunk top; // the chunk holding the top of the stack
+    private int topCount; // elements in the top chunk
+    private Chunk spare;
+    private int size;
+
+    /**
+     * A node of the list, holding up to chunkSize elements. Every chunk below the top one is full.
+     */
+    private class Chunk {
+        final Object[] items = new Object[chunkSize];
+        Chunk next; // the chunk below this one
+    }
+
+    public UnrolledLinkedListStack() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize How many elements each node holds
+     */
+    public UnrolledLinkedListStack(int chunkSize) {
+        if(chunkSize < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(T element) {
+        if(top == null || topCount == chunkSize) {
+            Chunk c = spare != null ? spare : new Chunk();
+            spare = null;
+
+            c.next = top;
+            top = c;
+            topCount = 0;
+        }
+
+        top.items[topCount++] = element;
+        size++;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T remove() {
+        if(size == 0) {
+            return null;
+        }
+
+        T val = (T) top.items[--topCount];
+        top.items[topCount] = null; // don't keep the element alive
+        size--;
+
+        if(topCount == 0) {
+            // the top chunk is empty, so continue with the full chunk below it
+            Chunk empty = top;
+            top = top.next;
+            topCount = top == null ? 0 : chunkSize;
+
+            empty.next = null;
+            spare = empty;
+        }
+
+        return val;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new StackIterator();
+    }
+
+    private class StackIterator implements Iterator<T> {
+        private Chunk chunk = top;
+        private int i = topCount; // the element before i is the next one
+
+        @Override
+        public boolean hasNext() {
+            return chunk != null && i > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            T val = (T) chunk.items[--i];
+            if(i == 0) {
+                chunk = chunk.next;
+                i = chunkSize;
+            }
+
+            return val;
+        }
+    }
+
+    public static void main(String[] args) {
+        UnrolledLinkedListStack<String> stringStack = new UnrolledLinkedListStack<>(4);
+
+        // add the numbers 0 - 9 to our stack, which needs three chunks of 4
+        for(int i = 0; i < 10; i++) {
+            stringStack.add(Integer.toString(i));
+        }
+
+        // demo printing using iterator
+        OutUtil.iterablePrint(stringStack);
+
+        // demo manual printing
+        String val;
+        while((val = stringStack.remove()) != null) {
+            System.out.println(val);
+        }
+
+        System.out.println();
+
+        // add and remove in succession
+        for(int i = 0; i < 5; i++) {
+            stringStack.add(Integer.toString(i));
+            System.out.println(stringStack.remove());
+        }
+    }
+}
@@ -1,31 +1,430 @@
 package util;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Random test data. Every generator takes a seed, and the same seed always gives the same array, so a test or a
+ * benchmark can be run again on exactly the same input.
+ *
+ * Large arrays are generated in blocks of BLOCK elements on all cores. The generator of every block is split off the
+ * seeded one in order before any block is filled, so the array doesn't depend on how many cores there are or which
+ * block is done first.
+ *
+ * The shapes of data the sorts care about:
+ *
+ * - uniform: every value in the range equally likely.
+ * - unique: uniform, but no value twice. This uses Floyd's algorithm, which picks n values out of a range in O(n) time,
+ * even if n is almost the size of the range.
+ * - zipf: value k comes up with probability proportional to 1 / (k + 1)^exponent, so a few values make up most of the
+ * array, like words in a text or requests to a popular site.
+ * - few unique: uniform over a handful of values.
+ * - sorted, reversed, and sawtooth (sorted runs of the same length, one after the other).
+ * - nearly sorted: sorted, with a number of random pairs of elements swapped.
+ *
+ * Everything is generated as a primitive array. boxed turns it into an array of objects, for the sorts that take
+ * Comparables.
+ */
 public class RandUtil {
+    private static final int BLOCK = 1 << 16;
+
     public static Double[] randDoubleArr(int len) {
-        Double[] darr = new Double[len];
-        for(int i = 0; i < len; i++) {
-            darr[i] = Math.random();
+        return boxed(uniformDoubles(len, ThreadLocalRandom.current().nextLong()));
+    }
+
+    public static Integer[] uniqueRandIntArr(int len, int lower, int upper) {
+        return boxed(uniqueInts(len, lower, upper, ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * @return n ints, any int equally likely.
+     */
+    public static int[] uniformInts(int n, long seed) {
+        checkLength(n);
+
+        int[] a = new int[n];
+        fill(n, seed, (from, to, random) -> {
+            for(int i = from; i < to; i++) {
+                a[i] = random.nextInt();
+            }
+        });
+        return a;
+    }
+
+    /**
+     * @return n ints from lower (inclusive) to upper (exclusive).
+     */
+    public static int[] uniformInts(int n, int lower, int upper, long seed) {
+        checkLength(n);
+        if(lower >= upper) {
+            throw new IllegalArgumentException();
         }
 
-        return darr;
+        int[] a = new int[n];
+        fill(n, seed, (from, to, random) -> {
+            for(int i = from; i < to; i++) {
+                a[i] = random.nextInt(lower, upper);
+            }
+        });
+        return a;
     }
 
-    public static Integer[] uniqueRandIntArr(int len, int lower, int upper) {
-        if(upper - lower < len) {
+    /**
+     * @return n longs from lower (inclusive) to upper (exclusive).
+     */
+    public static long[] uniformLongs(int n, long lower, long upper, long seed) {
+        checkLength(n);
+        if(lower >= upper) {
             throw new IllegalArgumentException();
         }
 
-        Integer[] arr = new Integer[len];
-        for(int i = 0; i < len; i++) {
-            arr[i] = (int) (Math.random() * (upper - lower)) + lower;
-            for(int j = 0; j < i; j++) {
-                if(arr[i].equals(arr[j])) {
-                    i--;
-                    break;
+        long[] a = new long[n];
+        fill(n, seed, (from, to, random) -> {
+            for(int i = from; i < to; i++) {
+                a[i] = random.nextLong(lower, upper);
+            }
+        });
+        return a;
+    }
+
+    /**
+     * @return n doubles from 0 (inclusive) to 1 (exclusive).
+     */
+    public static double[] uniformDoubles(int n, long seed) {
+        checkLength(n);
+
+        double[] a = new double[n];
+        fill(n, seed, (from, to, random) -> {
+            for(int i = from; i < to; i++) {
+                a[i] = random.nextDouble();
+            }
+        });
+        return a;
+    }
+
+    /**
+     * @return n different ints from lower (inclusive) to upper (exclusive), in random order.
+     */
+    public static int[] uniqueInts(int n, int lower, int upper, long seed) {
+        long range = (long) upper - lower;
+        if(n < 0 || range < n) {
+            throw new IllegalArgumentException();
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] a = new int[n];
+
+        // Floyd's algorithm: for every j in the last n values of the range, pick t from 0 to j. if t was picked already,
+        // take j instead, which can't have been picked yet, since only values up to j have been looked at. every subset
+        // of n values comes out with the same probability.
+        if(range <= 32L * n) {
+            // a bitset of the whole range takes at most as much memory as the array
+            long[] picked = new long[(int) ((range + 63) >>> 6)];
+            int k = 0;
+            for(long j = range - n; j < range; j++) {
+                long t = random.nextLong(j + 1);
+                if((picked[(int) (t >>> 6)] & (1L << t)) != 0) {
+                    t = j;
                 }
+                picked[(int) (t >>> 6)] |= 1L << t;
+                a[k++] = (int) (lower + t);
+            }
+        } else {
+            LongHashSet picked = new LongHashSet(n);
+            int k = 0;
+            for(long j = range - n; j < range; j++) {
+                long t = random.nextLong(j + 1);
+                if(!picked.add(t)) {
+                    t = j;
+                    picked.add(t);
+                }
+                a[k++] = (int) (lower + t);
+            }
+        }
+
+        // the set is random, but the order isn't: a value is more likely to come late if it is large. so shuffle it, the
+        // same way KnuthShuffle does (which isn't used here, since the algorithms package depends on this one).
+        for(int i = 1; i < n; i++) {
+            int r = random.nextInt(i + 1);
+            int temp = a[r];
+            a[r] = a[i];
+            a[i] = temp;
+        }
+        return a;
+    }
+
+    /**
+     * @param keys     The number of different values, 0 to keys - 1.
+     * @param exponent How skewed the values are: 0 is uniform, 1 is the classic Zipf distribution.
+     * @return n ints, where value k comes up with probability proportional to 1 / (k + 1)^exponent.
+     */
+    public static int[] zipfInts(int n, int keys, double exponent, long seed) {
+        checkLength(n);
+        if(keys < 1 || exponent < 0) {
+            throw new IllegalArgumentException();
+        }
+        if(exponent == 0) {
+            return uniformInts(n, 0, keys, seed);
+        }
+
+        ZipfSampler sampler = new ZipfSampler(keys, exponent);
+        int[] a = new int[n];
+        fill(n, seed, (from, to, random) -> {
+            for(int i = from; i < to; i++) {
+                a[i] = sampler.sample(random) - 1;
             }
+        });
+        return a;
+    }
+
+    /**
+     * @return n ints from 0 (inclusive) to keys (exclusive).
+     */
+    public static int[] fewUniqueInts(int n, int keys, long seed) {
+        return uniformInts(n, 0, keys, seed);
+    }
+
+    /**
+     * @return 0, 1, ..., n - 1.
+     */
+    public static int[] sortedInts(int n) {
+        checkLength(n);
+        return setAll(new int[n], i -> i);
+    }
+
+    /**
+     * @return n - 1, n - 2, ..., 0.
+     */
+    public static int[] reversedInts(int n) {
+        checkLength(n);
+        return setAll(new int[n], i -> n - 1 - i);
+    }
+
+    /**
+     * @return 0, 1, ..., period - 1, 0, 1, ..., period - 1, ... up to n elements.
+     */
+    public static int[] sawtoothInts(int n, int period) {
+        checkLength(n);
+        if(period < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        return setAll(new int[n], i -> i % period);
+    }
+
+    /**
+     * @return 0, 1, ..., n - 1, after swapping the elements of a random pair of positions, swaps times.
+     */
+    public static int[] nearlySortedInts(int n, int swaps, long seed) {
+        if(swaps < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        int[] a = sortedInts(n);
+        if(n == 0) {
+            return a;
         }
 
-        return arr;
+        SplittableRandom random = new SplittableRandom(seed);
+        for(int s = 0; s < swaps; s++) {
+            int i = random.nextInt(n);
+            int j = random.nextInt(n);
+            int temp = a[i];
+            a[i] = a[j];
+            a[j] = temp;
+        }
+        return a;
+    }
+
+    public static Integer[] boxed(int[] a) {
+        Integer[] boxed = new Integer[a.length];
+        if(a.length < BLOCK) {
+            Arrays.setAll(boxed, i -> a[i]);
+        } else {
+            Arrays.parallelSetAll(boxed, i -> a[i]);
+        }
+        return boxed;
+    }
+
+    public static Long[] boxed(long[] a) {
+        Long[] boxed = new Long[a.length];
+        if(a.length < BLOCK) {
+            Arrays.setAll(boxed, i -> a[i]);
+        } else {
+            Arrays.parallelSetAll(boxed, i -> a[i]);
+        }
+        return boxed;
+    }
+
+    public static Double[] boxed(double[] a) {
+        Double[] boxed = new Double[a.length];
+        if(a.length < BLOCK) {
+            Arrays.setAll(boxed, i -> a[i]);
+        } else {
+            Arrays.parallelSetAll(boxed, i -> a[i]);
+        }
+        return boxed;
+    }
+
+    private interface BlockFiller {
+        void fill(int from, int to, SplittableRandom random);
+    }
+
+    /**
+     * Fills [0, n) in blocks of BLOCK elements, in parallel if there is more than one.
+     */
+    private static void fill(int n, long seed, BlockFiller filler) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        if(blocks <= 1) {
+            filler.fill(0, n, random.split());
+            return;
+        }
+
+        SplittableRandom[] randoms = new SplittableRandom[blocks];
+        for(int b = 0; b < blocks; b++) {
+            randoms[b] = random.split();
+        }
+
+        IntStream.range(0, blocks).parallel().forEach(b ->
+                filler.fill(b * BLOCK, Math.min(n, (b + 1) * BLOCK), randoms[b]));
+    }
+
+    /**
+     * Checked before any array is allocated, so that a negative length is an IllegalArgumentException like every other
+     * bad argument, not a NegativeArraySizeException.
+     */
+    private static void checkLength(int n) {
+        if(n < 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static int[] setAll(int[] a, IntUnaryOperator generator) {
+        if(a.length < BLOCK) {
+            Arrays.setAll(a, generator);
+        } else {
+            Arrays.parallelSetAll(a, generator);
+        }
+        return a;
+    }
+
+    /**
+     * Samples ranks 1 to keys of a Zipf distribution by rejection-inversion (Hormann and Derflinger). A table of the
+     * cumulative probabilities would need 8 bytes per key, and a binary search in it for every sample, which misses the
+     * cache on every step once there are millions of keys. This takes O(1) time and memory instead.
+     *
+     * The probabilities 1 / k^exponent are covered by a continuous function h(x) = 1 / x^exponent, whose integral H can
+     * be inverted. A uniform number in the range of H is turned into an x, which is rounded to the nearest rank k. The
+     * sample is kept if it lands in the part of the area under h that belongs to k, which is almost always the case,
+     * and drawn again otherwise.
+     */
+    private static class ZipfSampler {
+        private final int keys;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralKeys;
+        private final double s; // a rank this close to x is always kept, without computing H
+
+        ZipfSampler(int keys, double exponent) {
+            this.keys = keys;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralKeys = hIntegral(keys + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        int sample(SplittableRandom random) {
+            while(true) {
+                double u = hIntegralKeys + random.nextDouble() * (hIntegralX1 - hIntegralKeys);
+                double x = hIntegralInverse(u);
+
+                int k = (int) (x + 0.5);
+                if(k < 1) {
+                    k = 1;
+                } else if(k > keys) {
+                    k = keys;
+                }
+
+                if(k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private double h(double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        /**
+         * The integral of h, (x^(1 - exponent) - 1) / (1 - exponent), which is log(x) for an exponent of 1.
+         */
+        private double hIntegral(double x) {
+            double logX = Math.log(x);
+            return expm1OverX((1 - exponent) * logX) * logX;
+        }
+
+        private double hIntegralInverse(double x) {
+            double t = x * (1 - exponent);
+            if(t < -1) {
+                t = -1; // only off by rounding errors
+            }
+            return Math.exp(log1pOverX(t) * x);
+        }
+
+        /**
+         * (e^x - 1) / x, which is 1 at x = 0.
+         */
+        private static double expm1OverX(double x) {
+            if(Math.abs(x) > 1e-8) {
+                return Math.expm1(x) / x;
+            }
+            return 1 + x / 2 * (1 + x / 3 * (1 + x / 4));
+        }
+
+        /**
+         * log(1 + x) / x, which is 1 at x = 0.
+         */
+        private static double log1pOverX(double x) {
+            if(Math.abs(x) > 1e-8) {
+                return Math.log1p(x) / x;
+            }
+            return 1 - x * (0.5 - x * (1.0 / 3 - x / 4));
+        }
+    }
+
+    /**
+     * Just enough of a hash set of non-negative longs for Floyd's algorithm: open addressing with linear probing, on a
+     * table that is kept at most half full, with -1 for an empty slot.
+     */
+    private static class LongHashSet {
+        private final long[] table;
+        private final int mask;
+
+        LongHashSet(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1;
+            table = new long[capacity];
+            Arrays.fill(table, -1);
+            mask = capacity - 1;
+        }
+
+        /**
+         * @return false if the value was in the set already.
+         */
+        boolean add(long value) {
+            int i = (int) (value * 0x9e3779b97f4a7c15L >>> 32) & mask;
+            while(table[i] != -1) {
+                if(table[i] == value) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+
+            table[i] = value;
+            return true;
+        }
     }
 }